@@ -4,37 +4,69 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.inversoft.rest.ClientResponse;
 import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.cache.BotValidityScheduler;
+import com.uci.utils.cache.MicroBatcher;
+import com.uci.utils.cache.NegativeCache;
+import com.uci.utils.cache.PartitionedCache;
+import com.uci.utils.cache.ReactiveSingleFlight;
+import com.uci.utils.cache.StartingMessageIndex;
+import com.uci.utils.cache.service.ApplicationRegistryService;
+import com.uci.utils.cache.service.RedisCacheService;
+import com.uci.utils.cache.service.VaultCredentialService;
 import com.uci.utils.dto.BotServiceParams;
+import com.uci.utils.http.Bulkhead;
+import com.uci.utils.http.CircuitBreaker;
+import com.uci.utils.http.ClusterRateLimiter;
+import com.uci.utils.http.EndpointGuard;
+import com.uci.utils.http.RequestHedger;
+import com.uci.utils.model.AdapterConfig;
+import com.uci.utils.model.AdapterWithCredentials;
+import com.uci.utils.model.BotConfig;
+import com.uci.utils.model.UserEnrollment;
+import com.uci.utils.service.FusionAuthGateway;
 import io.fusionauth.client.FusionAuthClient;
 import io.fusionauth.domain.Application;
 import io.fusionauth.domain.api.ApplicationResponse;
 import io.netty.channel.ConnectTimeoutException;
 import io.netty.channel.unix.Errors;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriBuilder;
-import reactor.cache.CacheMono;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Signal;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.PrematureCloseException;
 import reactor.util.retry.Retry;
 
 import java.net.URI;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @SuppressWarnings("ALL")
 @Service
 @Slf4j
-@AllArgsConstructor
 @Getter
 @Setter
 public class BotService {
@@ -43,8 +75,50 @@ public class BotService {
     public FusionAuthClient fusionAuthClient;
     private Cache<Object, Object> cache;
     private BotServiceParams botServiceParams;
+    /* Defaults to the caffeine.cache.negative.* defaults until the configured bean is set */
+    private NegativeCache negativeCache = new NegativeCache(10000, Duration.ofSeconds(30));
+    /* Optional collaborators, null if not wired */
+    private RedisCacheService redisCacheService;
+    private VaultCredentialService vaultCredentialService;
+    private ApplicationRegistryService applicationRegistryService;
     private final List<Class<? extends Throwable>> exceptionsToHandleList = Arrays.asList(ConnectTimeoutException.class, Errors.NativeIoException.class, PrematureCloseException.class);
+    private static final String BOT_FOR_STARTING_MESSAGE = "bot-for-starting-message:";
+    private static final String BOT_FOR_NAME = "bot-for-name:";
+    private static final String BOT_NODE_BY_ID = "bot-node-by-id:";
+    private static final String BOT_ID_FOR_BOT_NAME = "Bot-id-for-bot-name: ";
+    private static final String BOT_NAME_BY_ID = "bot-name-by-id:";
+    private static final String FORM_BY_BOT_ID = "form-by-bot-name:";
+    private static final String BOT_CONFIG_BY_ID = "bot-config-by-id:";
+    private static final String BOT_CONFIG_FOR_NAME = "bot-config-for-name:";
+    private static final String ADAPTER_CONFIG_BY_ID = "adapter-config-by-id:";
+    private static final String ADAPTER_BY_ID = "adapter-by-id: ";
+    private static final String ADAPTER_CREDENTIALS = "adapter-credentials: ";
+    private static final String ADAPTER_WITH_CREDENTIALS = "adapter-with-credentials: ";
+    private final ReactiveSingleFlight cacheMissCoalescer = new ReactiveSingleFlight("bot-service");
+    /* Age in seconds of the cached value when its last refresh-ahead started, by cache key */
+    private final Cache<String, Long> refreshAttempts = Caffeine.newBuilder().maximumSize(10000).build();
+    private final AtomicReference<MicroBatcher<String, JsonNode>> botNodeBatcher = new AtomicReference<>();
+    private final AtomicReference<Cache<String, String>> enrolledUsers = new AtomicReference<>();
+    /* Last known bot & adapter nodes (from cache snapshots), served if the campaign service call fails */
+    private final AtomicReference<Cache<String, JsonNode>> staleNodes = new AtomicReference<>();
+    /* Only bot & adapter nodes are snapshotted, never credentials */
+    private static final List<String> SNAPSHOT_KEY_PREFIXES = Arrays.asList(BOT_NODE_BY_ID, BOT_FOR_NAME, BOT_FOR_STARTING_MESSAGE, ADAPTER_BY_ID);
+    private final Map<String, EndpointGuard> endpointGuards = new ConcurrentHashMap<>();
+    private final Map<String, RequestHedger> requestHedgers = new ConcurrentHashMap<>();
+    /* Live bots by normalized starting message, built by StartingMessageIndexService if enabled */
+    private final StartingMessageIndex startingMessageIndex = new StartingMessageIndex();
+    private final BotValidityScheduler botValidityScheduler = new BotValidityScheduler(Schedulers.parallel(), this::onValidityBoundary);
+    /* Cluster wide rate limit of FusionAuth, empty if disabled */
+    private final AtomicReference<ClusterRateLimiter> fusionAuthRateLimiter = new AtomicReference<>();
+    /* Non blocking FusionAuth calls, empty if not wired (calls then run on boundedElastic) */
+    private final AtomicReference<FusionAuthGateway> fusionAuthGateway = new AtomicReference<>();
 
+    public BotService(WebClient webClient, FusionAuthClient fusionAuthClient, Cache<Object, Object> cache, BotServiceParams botServiceParams) {
+        this.webClient = webClient;
+        this.fusionAuthClient = fusionAuthClient;
+        this.cache = cache;
+        this.botServiceParams = botServiceParams;
+    }
 
     /**
      * Retrieve Bot Node from Starting Message
@@ -53,56 +127,30 @@ public class BotService {
      * @return
      */
     public Mono<JsonNode> getBotNodeFromStartingMessage(String startingMessage) {
-        String cacheKey = "bot-for-starting-message:" + startingMessage;
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getBotNodeFromStartingMessage from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((JsonNode) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono
-                    .lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? (JsonNode) cache.getIfPresent(key) : null)
-                    .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/bot/search")
-                                    .queryParam("perPage", 5)
-                                    .queryParam("page", 1)
-                                    .queryParam("match", true)
-                                    .queryParam("startingMessage", startingMessage)
-                                    .build())
-                            .retrieve().bodyToMono(String.class).map(response -> {
-                                if (response != null) {
-                                    log.info("Call getBotNodeFromStartingMessage : " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                    try {
-                                        ObjectMapper mapper = new ObjectMapper();
-                                        JsonNode root = mapper.readTree(response);
-    //                                        if (root.path("result") != null && root.path("result").get(0) != null && !root.path("result").get(0).isEmpty()) {
-    //                                            return root.path("result").get(0);
-    //                                        }
-                                        if (root.path("result") != null && root.path("result").get("data") != null
-                                                && root.path("result").get("data").size() > 0
-                                                && !root.path("result").get("data").get(0).isEmpty()) {
-                                            return root.path("result").get("data").get(0);
-                                        }
-                                        return new ObjectMapper().createObjectNode();
-                                    } catch (JsonProcessingException jsonMappingException) {
-                                        return new ObjectMapper().createObjectNode();
-                                    }
-
-                                } else {
-                                    return new ObjectMapper().createObjectNode();
-                                }
-                            })
-                            .doOnError(throwable -> log.info("Error in getting campaign: " + throwable.getMessage()))
-                            .onErrorReturn(new ObjectMapper().createObjectNode())
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isNull() && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
+        JsonNode indexedBotNode = startingMessageIndex.lookup(startingMessage);
+        if (indexedBotNode != null) {
+            return Mono.just(indexedBotNode);
         }
+        String cacheKey = BOT_FOR_STARTING_MESSAGE + startingMessage;
+        Supplier<Mono<JsonNode>> fetch = () -> hedged("admin/bot/search", () -> webClient.get()
+                    .uri(builder -> builder.path("admin/bot/search")
+                            .queryParam("perPage", 5)
+                            .queryParam("page", 1)
+                            .queryParam("match", true)
+                            .queryParam("startingMessage", startingMessage)
+                            .build())
+                    .retrieve().bodyToMono(DataBuffer.class).map(buffer -> {
+                        JsonNode botNode = JsonUtil.extract(buffer, "result", "data", 0);
+                        log.info("Call getBotNodeFromStartingMessage : " + botNode + " cache : " + cache.getIfPresent(cacheKey));
+                        return botNode.isEmpty() ? JsonUtil.emptyNode() : botNode;
+                    })
+                    .transform(call -> guarded("admin/bot/search", call)))
+                    .doOnError(throwable -> log.info("Error in getting campaign: " + throwable.getMessage()))
+                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+        return cacheLookup("getBotNodeFromStartingMessage", cacheKey, () -> l2Lookup(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                () -> l2Refresh(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                this::isCacheableNode)
+                .onErrorResume(throwable -> Mono.just(staleOrEmpty(cacheKey)));
     }
 
 
@@ -113,54 +161,37 @@ public class BotService {
      * @return
      */
     public Mono<JsonNode> getBotNodeFromName(String botName) {
-        String cacheKey = "bot-for-name:" + botName;
+        return botNodeFromName(botName)
+                .onErrorResume(throwable -> Mono.just(staleOrEmpty(BOT_FOR_NAME + botName)));
+    }
+
+    /**
+     * Retrieve Bot Node from Bot Name, errors of the campaign service are passed on
+     *
+     * @param botName
+     * @return
+     */
+    private Mono<JsonNode> botNodeFromName(String botName) {
+        String cacheKey = BOT_FOR_NAME + botName;
         log.info("BotService::getBotNodeFromName::fetchingBotData : " + botName);
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getBotNodeFromName from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((JsonNode) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono
-                    .lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? (JsonNode) cache.getIfPresent(key) : null)
-                    .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/bot/search")
-                                    .queryParam("perPage", 5)
-                                    .queryParam("page", 1)
-                                    .queryParam("match", true)
-                                    .queryParam("name", botName)
-                                    .build())
-                            .retrieve().bodyToMono(String.class).map(response -> {
-                                if (response != null) {
-                                    log.info("BotService:getBotNodeFromName::Got Data from UCI Api: " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                    try {
-                                        ObjectMapper mapper = new ObjectMapper();
-                                        JsonNode root = mapper.readTree(response);
-                                        if (root.path("result") != null && root.path("result").get("data") != null
-                                                && root.path("result").get("data").size() > 0
-                                                && !root.path("result").get("data").get(0).isEmpty()) {
-                                            return root.path("result").get("data").get(0);
-                                        }
-                                        return new ObjectMapper().createObjectNode();
-                                    } catch (JsonProcessingException jsonMappingException) {
-                                        return new ObjectMapper().createObjectNode();
-                                    }
-
-                                } else {
-                                    return new ObjectMapper().createObjectNode();
-                                }
-                            })
-                            .doOnError(throwable -> log.info("Error::getBotNodeFromName in getting campaign: " + throwable.getMessage()))
-                            .onErrorReturn(new ObjectMapper().createObjectNode())
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isNull() && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
-        }
+        Supplier<Mono<JsonNode>> fetch = () -> hedged("admin/bot/search", () -> webClient.get()
+                    .uri(builder -> builder.path("admin/bot/search")
+                            .queryParam("perPage", 5)
+                            .queryParam("page", 1)
+                            .queryParam("match", true)
+                            .queryParam("name", botName)
+                            .build())
+                    .retrieve().bodyToMono(DataBuffer.class).map(buffer -> {
+                        JsonNode botNode = JsonUtil.extract(buffer, "result", "data", 0);
+                        log.info("BotService:getBotNodeFromName::Got Data from UCI Api: " + botNode + " cache : " + cache.getIfPresent(cacheKey));
+                        return botNode.isEmpty() ? JsonUtil.emptyNode() : botNode;
+                    })
+                    .transform(call -> guarded("admin/bot/search", call)))
+                    .doOnError(throwable -> log.info("Error::getBotNodeFromName in getting campaign: " + throwable.getMessage()))
+                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+        return cacheLookup("getBotNodeFromName", cacheKey, () -> l2Lookup(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                () -> l2Refresh(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                this::isCacheableNode);
     }
 
     /**
@@ -170,47 +201,243 @@ public class BotService {
      * @return Application
      */
     public Mono<JsonNode> getBotNodeFromId(String botId) {
-        String cacheKey = "bot-node-by-id:" + botId;
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getBotNodeFromId from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((JsonNode) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono
-                    .lookup(key -> Mono.justOrEmpty((JsonNode) cache.getIfPresent(cacheKey))
-                    .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/bot/" + botId).build())
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .map(response -> {
-                                        if (response != null) {
-                                            log.info("Call getBotNodeFromId : " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                            ObjectMapper mapper = new ObjectMapper();
-                                            try {
-                                                JsonNode root = mapper.readTree(response);
-                                                if (root.path("result") != null && !root.path("result").isEmpty()) {
-                                                    return root.path("result");
-                                                }
-                                                return null;
-                                            } catch (JsonProcessingException e) {
-                                                return null;
-                                            }
-                                        }
-                                        return null;
-                                    }
-                            )
-                            .doOnError(throwable -> log.info("Error::getBotNodeFromId in getting campaign: " + throwable.getMessage()))
-                            .onErrorReturn(new ObjectMapper().createObjectNode())
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isNull() && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
+        return botNodeFromId(botId)
+                .onErrorResume(throwable -> Mono.just(staleOrEmpty(BOT_NODE_BY_ID + botId)));
+    }
+
+    /**
+     * Retrieve Bot Node From its Identifier, errors of the campaign service are passed on
+     *
+     * @param botId
+     * @return
+     */
+    private Mono<JsonNode> botNodeFromId(String botId) {
+        String cacheKey = BOT_NODE_BY_ID + botId;
+        Supplier<Mono<JsonNode>> fetch = () -> (botServiceParams.isBotBatchEnabled()
+                    ? botNodeBatcher().load(botId).defaultIfEmpty(JsonUtil.emptyNode())
+                    : hedged("admin/bot", () -> webClient.get()
+                    .uri(builder -> builder.path("admin/bot/" + botId).build())
+                    .retrieve()
+                    .bodyToMono(DataBuffer.class)
+                    .map(buffer -> {
+                        JsonNode botNode = JsonUtil.extract(buffer, "result");
+                        log.info("Call getBotNodeFromId : " + botNode + " cache : " + cache.getIfPresent(cacheKey));
+                        return botNode.isEmpty() ? JsonUtil.emptyNode() : botNode;
+                    })
+                    .transform(call -> guarded("admin/bot", call))))
+                    .doOnError(throwable -> log.info("Error::getBotNodeFromId in getting campaign: " + throwable.getMessage()))
+                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+        return cacheLookup("getBotNodeFromId", cacheKey, () -> l2Lookup(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                () -> l2Refresh(cacheKey, fetch).doOnNext(this::cacheBotNode),
+                this::isCacheableNode);
+    }
+
+    /**
+     * Retrieve Bot Nodes for bot ids, in the order of the ids. Cached bots are served from cache,
+     * the rest are fetched with multi id requests if bot batching is enabled. If a request fails the last
+     * known nodes of its ids are served, without caching them.
+     * Bots which are not found are skipped.
+     *
+     * @param botIds
+     * @return
+     */
+    public Flux<JsonNode> getBotNodesFromIds(Collection<String> botIds) {
+        List<String> ids = botIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        int batchSize = Math.max(1, botServiceParams.getBotBatchMaxSize());
+        if (!botServiceParams.isBotBatchEnabled()) {
+            return Flux.fromIterable(ids)
+                    .flatMapSequential(this::getBotNodeFromId, batchSize)
+                    .filter(this::isCacheableNode);
+        }
+
+        Map<String, JsonNode> botNodes = new ConcurrentHashMap<>();
+        Set<String> failedIds = ConcurrentHashMap.newKeySet();
+        List<String> missingIds = new ArrayList<>();
+        ids.forEach(botId -> {
+            String cacheKey = BOT_NODE_BY_ID + botId;
+            Object cached = cache.getIfPresent(cacheKey);
+            if (cached != null) {
+                botNodes.put(botId, (JsonNode) cached);
+            } else if (negativeCache.getIfPresent(cacheKey) == null) {
+                missingIds.add(botId);
+            }
+        });
+        log.info("BotService:getBotNodesFromIds::bots from cache: " + botNodes.size() + ", bots to fetch: " + missingIds.size());
+        return l2BotNodes(missingIds)
+                .doOnNext(l2BotNodes -> l2BotNodes.forEach((botId, botNode) -> {
+                    cacheBotNode(botNode);
+                    botNodes.put(botId, botNode);
+                }))
+                .flatMapMany(l2BotNodes -> Flux.fromIterable(ListUtils.partition(missingIds.stream()
+                        .filter(botId -> !l2BotNodes.containsKey(botId))
+                        .collect(Collectors.toList()), batchSize)))
+                .flatMap(batch -> fetchBotNodesFromIds(batch)
+                        .onErrorResume(throwable -> {
+                            failedIds.addAll(batch);
+                            batch.forEach(botId -> Optional.ofNullable(staleNode(BOT_NODE_BY_ID + botId))
+                                    .ifPresent(staleNode -> botNodes.put(botId, staleNode)));
+                            return Mono.empty();
+                        }), Math.max(1, botServiceParams.getBotBatchConcurrency()))
+                .doOnNext(fetched -> fetched.forEach((botId, botNode) -> {
+                    cacheBotNode(botNode);
+                    writeL2(BOT_NODE_BY_ID + botId, botNode);
+                    botNodes.put(botId, botNode);
+                }))
+                .then(Mono.fromRunnable(() -> missingIds.stream()
+                        .filter(botId -> !botNodes.containsKey(botId) && !failedIds.contains(botId))
+                        .forEach(botId -> negativeCache.put(BOT_NODE_BY_ID + botId, JsonUtil.emptyNode()))))
+                .thenMany(Flux.fromIterable(ids)
+                        .filter(botNodes::containsKey)
+                        .map(botNodes::get));
+    }
+
+    /**
+     * Fetch Bot Nodes by ids with one request to the campaign service
+     *
+     * @param botIds
+     * @return Map of bot id to bot node, for the bots found
+     */
+    private Mono<Map<String, JsonNode>> fetchBotNodesFromIds(Collection<String> botIds) {
+        return webClient.get()
+                .uri(builder -> builder.path(botServiceParams.getBotBatchPath())
+                        .queryParam("ids", String.join(",", botIds))
+                        .build())
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> {
+                    log.info("BotService:fetchBotNodesFromIds::Got Data from UCI Api for bot ids: " + botIds);
+                    Map<String, JsonNode> botNodes = new HashMap<>();
+                    JsonNode result = JsonUtil.extract(buffer, "result");
+                    JsonNode data = result.isArray() ? result : result.path("data");
+                    data.forEach(botNode -> {
+                        String botId = BotUtil.getBotNodeData(botNode, "id");
+                        if (botId != null && botIds.contains(botId)) {
+                            botNodes.put(botId, botNode);
+                        }
+                    });
+                    return botNodes;
+                })
+                .transform(call -> guarded(botServiceParams.getBotBatchPath(), call))
+                .doOnError(throwable -> log.error("BotService:fetchBotNodesFromIds::Exception: " + throwable.getMessage()))
+                .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+    }
+
+    /**
+     * Retrieve compact Bot Config from Bot ID, empty if the bot is not found
+     *
+     * @param botId
+     * @return
+     */
+    public Mono<BotConfig> getBotConfigFromId(String botId) {
+        return cacheLookup("getBotConfigFromId", BOT_CONFIG_BY_ID + botId, () -> botNodeFromId(botId)
+                        .filter(this::isCacheableNode)
+                        .map(this::toBotConfig),
+                Objects::nonNull)
+                .onErrorResume(throwable -> Mono.just(staleOrEmpty(BOT_NODE_BY_ID + botId))
+                        .filter(this::isCacheableNode)
+                        .map(BotUtil::toBotConfig));
+    }
+
+    /**
+     * Retrieve compact Bot Config from Bot Name, empty if the bot is not found
+     *
+     * @param botName
+     * @return
+     */
+    public Mono<BotConfig> getBotConfigFromName(String botName) {
+        return cacheLookup("getBotConfigFromName", BOT_CONFIG_FOR_NAME + botName, () -> botNodeFromName(botName)
+                        .filter(this::isCacheableNode)
+                        .map(this::toBotConfig),
+                Objects::nonNull)
+                .onErrorResume(throwable -> Mono.just(staleOrEmpty(BOT_FOR_NAME + botName))
+                        .filter(this::isCacheableNode)
+                        .map(BotUtil::toBotConfig));
+    }
+
+    /**
+     * Walk every page of admin/bot/search & cache each bot under all its keys
+     *
+     * @param perPage bots per page
+     * @param maxPages upper bound on the pages walked
+     * @param concurrency pages fetched in parallel
+     * @param onPage called with the number of bots of each page fetched
+     * @return number of bots cached
+     */
+    public Mono<Long> warmAllBots(int perPage, int maxPages, int concurrency, Consumer<Integer> onPage) {
+        /* Stop at the first empty page, the api may serve less than perPage bots per page */
+        return Flux.range(1, maxPages)
+                .flatMapSequential(page -> fetchBotSearchPage(page, perPage), Math.max(1, concurrency), 1)
+                .takeUntil(List::isEmpty)
+                .doOnNext(botNodes -> {
+                    botNodes.forEach(this::cacheBotNode);
+                    onPage.accept(botNodes.size());
+                })
+                .reduce(0L, (total, botNodes) -> total + botNodes.size());
+    }
+
+    /**
+     * Walk every page of admin/bot/search & rebuild the starting message index with all bots. The index is kept
+     * as it is if a page fails.
+     *
+     * @param perPage bots per page
+     * @param maxPages upper bound on the pages walked
+     * @param concurrency pages fetched in parallel
+     * @return number of starting messages indexed
+     */
+    public Mono<Integer> refreshStartingMessageIndex(int perPage, int maxPages, int concurrency) {
+        return Flux.range(1, maxPages)
+                .flatMapSequential(page -> fetchBotSearchPage(page, perPage), Math.max(1, concurrency), 1)
+                .takeUntil(List::isEmpty)
+                .concatMapIterable(botNodes -> botNodes)
+                .collectList()
+                .map(startingMessageIndex::rebuild);
+    }
+
+    /**
+     * Fetch a page of all bots from admin/bot/search
+     *
+     * @param page
+     * @param perPage
+     * @return
+     */
+    private Mono<List<JsonNode>> fetchBotSearchPage(int page, int perPage) {
+        return webClient.get()
+                .uri(builder -> builder.path("admin/bot/search")
+                        .queryParam("perPage", perPage)
+                        .queryParam("page", page)
+                        .build())
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> {
+                    List<JsonNode> botNodes = new ArrayList<>();
+                    JsonUtil.extract(buffer, "result", "data").forEach(botNodes::add);
+                    log.info("BotService:fetchBotSearchPage::page: " + page + ", bots: " + botNodes.size());
+                    return botNodes;
+                })
+                .transform(call -> guarded("admin/bot/search", call))
+                .defaultIfEmpty(Collections.emptyList())
+                .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+    }
+
+    /**
+     * Micro batcher collecting concurrent bot node by id misses into one multi id request
+     *
+     * @return
+     */
+    private MicroBatcher<String, JsonNode> botNodeBatcher() {
+        MicroBatcher<String, JsonNode> batcher = botNodeBatcher.get();
+        if (batcher == null) {
+            synchronized (botNodeBatcher) {
+                batcher = botNodeBatcher.get();
+                if (batcher == null) {
+                    batcher = new MicroBatcher<>("bot-node-by-id", Math.max(1, botServiceParams.getBotBatchMaxSize()),
+                            Duration.ofMillis(botServiceParams.getBotBatchWindowMillis()),
+                            Math.max(1, botServiceParams.getBotBatchConcurrency()), this::fetchBotNodesFromIds);
+                    botNodeBatcher.set(batcher);
+                }
+            }
         }
+        return batcher;
     }
 
 //	/**
@@ -264,62 +491,19 @@ public class BotService {
      * @return
      */
     public Mono<String> getBotIdFromBotName(String botName) {
-        String cacheKey = "Bot-id-for-bot-name: " + botName;
+        String cacheKey = BOT_ID_FOR_BOT_NAME + botName;
         log.info("BotService::getBotIdFromBotName::calling from update user: " + botName);
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getBotIdFromBotName from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((String) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono.lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? cache.getIfPresent(key).toString() : null)
-                            .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get().uri(builder -> builder.path("admin/bot/search")
-                                            .queryParam("perPage", 5)
-                                            .queryParam("page", 1)
-                                            .queryParam("match", true)
-                                            .queryParam("name", botName)
-                                            .build())
-                                    .retrieve().bodyToMono(String.class).map(new Function<String, String>() {
-                                        @Override
-                                        public String apply(String response) {
-                                            if (response != null) {
-                                                log.info("BotService:getBotIdFromBotName::Got Data From UCI Api : " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                                ObjectMapper mapper = new ObjectMapper();
-                                                try {
-                                                    JsonNode root = mapper.readTree(response);
-//                                            if (root.path("result") != null && root.path("result").get(0) != null
-//                                                    && !root.path("result").get(0).isEmpty()
-//                                                    && BotUtil.checkBotValidFromJsonNode(root.path("result").get(0))) {
-//                                                return BotUtil.getBotNodeData(root.path("result").get(0), "id");
-//                                            }
-                                                    if (root.path("result") != null && root.path("result").get("data") != null
-                                                            && root.path("result").get("data").size() > 0
-                                                            && !root.path("result").get("data").get(0).isEmpty()
-                                                            && BotUtil.checkBotValidFromJsonNode(root.path("result").get("data").get(0))) {
-                                                        return BotUtil.getBotNodeData(root.path("result").get("data").get(0), "id");
-                                                    }
-                                                    return null;
-                                                } catch (JsonProcessingException jsonMappingException) {
-                                                    log.error("Error while parsing data from json : " + jsonMappingException.getMessage());
-                                                    return null;
-                                                }
-
-                                            } else {
-                                            }
-                                            return null;
-                                        }
-                                    })
-                                    .doOnError(throwable -> log.info("BotService:getBotIdFromBotName::Exception: " + throwable.getMessage()))
-                                    .onErrorReturn("")
-                                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
-        }
+        Function<JsonNode, String> validBotId = botNode -> {
+            if (isCacheableNode(botNode) && isBotNodeValid(botNode)) {
+                return Optional.ofNullable(BotUtil.getBotNodeData(botNode, "id")).orElse("");
+            }
+            return "";
+        };
+        /* Errors are not negatively cached, they fall back to the last known bot */
+        return cacheLookup("getBotIdFromBotName", cacheKey, () -> botNodeFromName(botName).map(validBotId),
+                this::isCacheableString)
+                .doOnError(throwable -> log.info("BotService:getBotIdFromBotName::Exception: " + throwable.getMessage()))
+                .onErrorResume(throwable -> Mono.just(validBotId.apply(staleOrEmpty(BOT_FOR_NAME + botName))));
     }
 
     /**
@@ -336,44 +520,215 @@ public class BotService {
                     @Override
                     public Mono<Pair<Boolean, String>> apply(String botID) {
                         log.info("BotService:updateUser::Calling add user on UCI Api:botId: " + botID);
-//						WebClient webClient2 = WebClient.builder().baseUrl(System.getenv("CAMPAIGN_URL_V1")).defaultHeader("admin-token", System.getenv("CAMPAIGN_ADMIN_TOKEN_V1")).build();
-                        return webClient.get().uri(new Function<UriBuilder, URI>() {
-                                    @Override
-                                    public URI apply(UriBuilder builder) {
-                                        String base = String.format("/admin/bot/%s/addUser/%s", botID, userID);
-                                        URI uri = builder.path(base).build();
-                                        return uri;
-                                    }
-                                }).retrieve().bodyToMono(String.class).map(response -> {
-                                    if (response != null) {
-                                        log.info("BotService:updateUser::user added FA successfully: " + response.toString());
-                                        ObjectMapper mapper = new ObjectMapper();
-                                        try {
-                                            JsonNode root = mapper.readTree(response);
-                                            String responseCode = root.path("responseCode").asText();
-                                            if (root.path("result") != null && root.path("result").path("status") != null
-                                                    && (root.path("result").path("status").asText().equalsIgnoreCase("USER_ADDED")
-                                                    || root.path("result").path("status").asText().equalsIgnoreCase("USER_EXISTS"))
-                                            ) {
-                                                String userID = root.path("result").path("userId").asText();
-                                                return Pair.of(true, userID);
-                                            }
-                                            return Pair.of(false, "");
-                                        } catch (JsonProcessingException jsonMappingException) {
-                                            return Pair.of(false, "");
-                                        }
-                                    } else {
-                                        log.error("BotService:updateUser::addUser: UCI Api returned null response");
-                                        return Pair.of(false, "");
-                                    }
-                                })
-                                .doOnError(throwable -> log.error("BotService:updateUser::addUser:Exception occured while calling uci api: " + throwable.getMessage()))
-                                .onErrorReturn(Pair.of(false, ""))
-                                .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+                        return addUserToBot(botName, botID, userID)
+                                .map(enrollment -> enrollment.isEnrolled() ? Pair.of(true, enrollment.getEnrolledUserId()) : Pair.of(false, ""));
                     }
                 });
     }
 
+    /**
+     * Add users to bots in bulk. Users are grouped per bot, each bot's users are sent in chunks
+     * (webclient.bot.add.users.chunk.size) with a bounded number of chunks in flight
+     * (webclient.bot.add.users.concurrency). Users added to the bot recently by this instance are skipped.
+     *
+     * @param userBots pairs of user id & bot name
+     * @return result per user, as they complete
+     */
+    public Flux<UserEnrollment> addUsers(Flux<Pair<String, String>> userBots) {
+        int chunkSize = Math.max(1, botServiceParams.getAddUsersChunkSize());
+        int concurrency = Math.max(1, botServiceParams.getAddUsersConcurrency());
+        /*
+         * groupBy stalls once its buffered users belong to groups nobody requests. Every group is subscribed as soon
+         * as it opens & only cuts its users into chunks, the bot id lookup & the requests run inside the chunks,
+         * so groups never wait on them. Chunks in flight are bounded by the second flatMap & complete on their own.
+         */
+        return userBots
+                .groupBy(Pair::getRight)
+                .flatMap(group -> {
+                    Mono<String> botID = getBotIdFromBotName(group.key())
+                            .onErrorReturn("")
+                            .defaultIfEmpty("")
+                            .cache();
+                    return group.map(Pair::getLeft)
+                            .buffer(chunkSize)
+                            .map(userIDs -> botID.flatMapMany(id -> id.isEmpty()
+                                    ? Flux.fromIterable(userIDs).map(userID -> UserEnrollment.builder()
+                                            .userId(userID)
+                                            .botName(group.key())
+                                            .status(UserEnrollment.Status.BOT_NOT_FOUND)
+                                            .build())
+                                    : addUsersChunk(group.key(), id, userIDs)));
+                }, Integer.MAX_VALUE)
+                .flatMap(Function.identity(), concurrency);
+    }
+
+    /**
+     * Add users to bot by name
+     *
+     * @param botName
+     * @param userIDs
+     * @return result per user, as they complete
+     */
+    public Flux<UserEnrollment> addUsers(String botName, Collection<String> userIDs) {
+        return addUsers(Flux.fromIterable(userIDs).map(userID -> Pair.of(userID, botName)));
+    }
+
+    /**
+     * Add a chunk of users to a bot, with one multi user request if webclient.bot.add.users.path is set,
+     * else one request per user
+     *
+     * @param botName
+     * @param botID
+     * @param userIDs
+     * @return
+     */
+    private Flux<UserEnrollment> addUsersChunk(String botName, String botID, List<String> userIDs) {
+        Cache<String, String> enrolled = enrolledUsers();
+        List<UserEnrollment> skipped = new ArrayList<>();
+        List<String> pending = new ArrayList<>();
+        userIDs.forEach(userID -> {
+            String enrolledUserId = enrolled != null ? enrolled.getIfPresent(botID + ":" + userID) : null;
+            if (enrolledUserId != null) {
+                skipped.add(enrollment(botName, botID, userID, UserEnrollment.Status.ALREADY_ENROLLED, enrolledUserId));
+            } else {
+                pending.add(userID);
+            }
+        });
+        if (pending.isEmpty()) {
+            return Flux.fromIterable(skipped);
+        }
+        String addUsersPath = botServiceParams.getAddUsersPath();
+        Flux<UserEnrollment> added = addUsersPath == null || addUsersPath.isEmpty()
+                ? Flux.fromIterable(pending).flatMap(userID -> addUserToBot(botName, botID, userID), pending.size())
+                : addUsersToBot(botName, botID, pending, addUsersPath.replace("{botId}", botID));
+        return Flux.fromIterable(skipped).concatWith(added);
+    }
+
+    /**
+     * Add multiple users to a bot with one request. The response result is expected to hold a result per user,
+     * in request order, each like the result of admin/bot/{id}/addUser.
+     *
+     * @param botName
+     * @param botID
+     * @param userIDs
+     * @param path
+     * @return
+     */
+    private Flux<UserEnrollment> addUsersToBot(String botName, String botID, List<String> userIDs, String path) {
+        return webClient.post()
+                .uri(builder -> builder.path(path).build())
+                .bodyValue(Collections.singletonMap("userIds", userIDs))
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> {
+                    JsonNode result = JsonUtil.extract(buffer, "result");
+                    log.info("BotService:addUsersToBot::bot: " + botID + ", users: " + userIDs.size() + ", results: " + result.size());
+                    List<UserEnrollment> enrollments = new ArrayList<>();
+                    for (int i = 0; i < userIDs.size(); i++) {
+                        enrollments.add(toEnrollment(botName, botID, userIDs.get(i), result.path(i)));
+                    }
+                    return enrollments;
+                })
+                .transform(call -> guarded("admin/bot/addUsers", call))
+                .doOnError(throwable -> log.error("BotService:addUsersToBot::Exception: " + throwable.getMessage()))
+                .onErrorResume(throwable -> Mono.just(userIDs.stream()
+                        .map(userID -> enrollment(botName, botID, userID, UserEnrollment.Status.FAILED, null))
+                        .collect(Collectors.toList())))
+                .flatMapIterable(enrollments -> enrollments);
+    }
+
+    /**
+     * Add a user to a bot
+     *
+     * @param botName
+     * @param botID
+     * @param userID
+     * @return
+     */
+    private Mono<UserEnrollment> addUserToBot(String botName, String botID, String userID) {
+        return webClient.get().uri(new Function<UriBuilder, URI>() {
+                    @Override
+                    public URI apply(UriBuilder builder) {
+                        String base = String.format("/admin/bot/%s/addUser/%s", botID, userID);
+                        URI uri = builder.path(base).build();
+                        return uri;
+                    }
+                }).retrieve().bodyToMono(String.class).map(response -> {
+                    if (response != null) {
+                        log.info("BotService:updateUser::user added FA successfully: " + response.toString());
+                        try {
+                            JsonNode root = JsonUtil.getMapper().readTree(response);
+                            return toEnrollment(botName, botID, userID, root.path("result"));
+                        } catch (JsonProcessingException jsonMappingException) {
+                            return enrollment(botName, botID, userID, UserEnrollment.Status.FAILED, null);
+                        }
+                    } else {
+                        log.error("BotService:updateUser::addUser: UCI Api returned null response");
+                        return enrollment(botName, botID, userID, UserEnrollment.Status.FAILED, null);
+                    }
+                })
+                .transform(call -> guarded("admin/bot/addUser", call))
+                .doOnError(throwable -> log.error("BotService:updateUser::addUser:Exception occured while calling uci api: " + throwable.getMessage()))
+                .onErrorReturn(enrollment(botName, botID, userID, UserEnrollment.Status.FAILED, null))
+                .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+    }
+
+    /**
+     * Enrollment of a user from an addUser result, remembered as enrolled if the user was added or existed
+     *
+     * @param botName
+     * @param botID
+     * @param userID
+     * @param result
+     * @return
+     */
+    private UserEnrollment toEnrollment(String botName, String botID, String userID, JsonNode result) {
+        String status = result.path("status").asText();
+        UserEnrollment.Status enrollmentStatus = status.equalsIgnoreCase("USER_ADDED") ? UserEnrollment.Status.ADDED
+                : status.equalsIgnoreCase("USER_EXISTS") ? UserEnrollment.Status.EXISTS : UserEnrollment.Status.FAILED;
+        String enrolledUserId = enrollmentStatus != UserEnrollment.Status.FAILED ? result.path("userId").asText() : null;
+        Cache<String, String> enrolled = enrolledUsers();
+        if (enrolledUserId != null && enrolled != null) {
+            enrolled.put(botID + ":" + userID, enrolledUserId);
+        }
+        return enrollment(botName, botID, userID, enrollmentStatus, enrolledUserId);
+    }
+
+    private UserEnrollment enrollment(String botName, String botID, String userID, UserEnrollment.Status status, String enrolledUserId) {
+        return UserEnrollment.builder()
+                .userId(userID)
+                .botName(botName)
+                .botId(botID)
+                .status(status)
+                .enrolledUserId(enrolledUserId)
+                .build();
+    }
+
+    /**
+     * Users recently added to bots by this instance, by bot id & user id, null if disabled
+     *
+     * @return
+     */
+    private Cache<String, String> enrolledUsers() {
+        if (botServiceParams.getEnrolledUsersCacheMaxSize() <= 0) {
+            return null;
+        }
+        Cache<String, String> enrolled = enrolledUsers.get();
+        if (enrolled == null) {
+            synchronized (enrolledUsers) {
+                enrolled = enrolledUsers.get();
+                if (enrolled == null) {
+                    enrolled = Caffeine.newBuilder()
+                            .maximumSize(botServiceParams.getEnrolledUsersCacheMaxSize())
+                            .expireAfterWrite(Duration.ofSeconds(botServiceParams.getEnrolledUsersCacheTtlSeconds()))
+                            .build();
+                    enrolledUsers.set(enrolled);
+                }
+            }
+        }
+        return enrolled;
+    }
+
     /**
      * Get adapter by id
      *
@@ -381,56 +736,71 @@ public class BotService {
      * @return
      */
     public Mono<JsonNode> getAdapterByID(String adapterID) {
-        String cacheKey = "adapter-by-id: " + adapterID;
+        return adapterByID(adapterID)
+                .onErrorResume(throwable -> staleAdapter(adapterID).switchIfEmpty(Mono.error(throwable)));
+    }
+
+    /**
+     * Get adapter by id, errors of the campaign service are passed on
+     *
+     * @param adapterID
+     * @return
+     */
+    private Mono<JsonNode> adapterByID(String adapterID) {
+        String cacheKey = ADAPTER_BY_ID + adapterID;
         log.info("BotService:getAdapterByID::Calling get adapter by id from uci api: " + adapterID);
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getAdapterByID from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((JsonNode) cache.getIfPresent(cacheKey));
-        } else {
-            log.info("getAdapterByID from webclient : " + cache.getIfPresent(cacheKey));
-            return CacheMono.lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? (JsonNode) cache.getIfPresent(key) : null)
-                            .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get().uri(new Function<UriBuilder, URI>() {
-                                        @Override
-                                        public URI apply(UriBuilder builder) {
-                                            URI uri = builder.path("admin/adapter/" + adapterID).build();
-                                            return uri;
-                                        }
-                                    }).retrieve().bodyToMono(String.class).map(new Function<String, JsonNode>() {
-                                        @Override
-                                        public JsonNode apply(String response) {
-                                            log.info("BotService:getAdapterByID::Got Data From UCI Api : cache key : " + cacheKey + " cache data : " + cache.getIfPresent(cacheKey));
-                                            if (response != null) {
-                                                ObjectMapper mapper = new ObjectMapper();
-                                                try {
-                                                    JsonNode root = mapper.readTree(response);
-                                                    if (root != null && root.path("result") != null && root.path("result").path("id") != null && !root.path("result").path("id").asText().isEmpty()) {
-                                                        return root.path("result");
-                                                    }
-                                                    return null;
-                                                } catch (JsonProcessingException jsonMappingException) {
-                                                    return null;
-                                                }
-
-                                            } else {
-                                            }
-                                            return null;
-                                        }
-                                    })
-                                    .doOnError(throwable -> log.error("BotService:getAdapterByID::Exception: " + throwable.getMessage()))
-                                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isNull() && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
-        }
+        Supplier<Mono<JsonNode>> fetch = () -> webClient.get().uri(new Function<UriBuilder, URI>() {
+                        @Override
+                        public URI apply(UriBuilder builder) {
+                            URI uri = builder.path("admin/adapter/" + adapterID).build();
+                            return uri;
+                        }
+                    }).retrieve().bodyToMono(DataBuffer.class).map(new Function<DataBuffer, JsonNode>() {
+                        @Override
+                        public JsonNode apply(DataBuffer buffer) {
+                            log.info("BotService:getAdapterByID::Got Data From UCI Api : cache key : " + cacheKey + " cache data : " + cache.getIfPresent(cacheKey));
+                            JsonNode adapter = JsonUtil.extract(buffer, "result");
+                            if (!adapter.path("id").asText().isEmpty()) {
+                                return adapter;
+                            }
+                            return JsonUtil.emptyNode();
+                        }
+                    })
+                    .transform(call -> guarded("admin/adapter", call))
+                    .doOnError(throwable -> log.error("BotService:getAdapterByID::Exception: " + throwable.getMessage()))
+                    .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))));
+        return cacheLookup("getAdapterByID", cacheKey, () -> l2Lookup(cacheKey, fetch), () -> l2Refresh(cacheKey, fetch),
+                this::isCacheableNode);
 
     }
 
+    /**
+     * Last known adapter node, empty if none
+     *
+     * @param adapterID
+     * @return
+     */
+    private Mono<JsonNode> staleAdapter(String adapterID) {
+        return Mono.justOrEmpty(staleNode(ADAPTER_BY_ID + adapterID))
+                .doOnNext(adapter -> log.info("BotService:staleAdapter::serving last known adapter: " + adapterID));
+    }
+
+    /**
+     * Get compact adapter config by id, empty if the adapter is not found
+     *
+     * @param adapterID
+     * @return
+     */
+    public Mono<AdapterConfig> getAdapterConfigByID(String adapterID) {
+        return cacheLookup("getAdapterConfigByID", ADAPTER_CONFIG_BY_ID + adapterID, () -> adapterByID(adapterID)
+                        .filter(this::isCacheableNode)
+                        .map(BotUtil::toAdapterConfig),
+                Objects::nonNull)
+                .onErrorResume(throwable -> staleAdapter(adapterID)
+                        .map(BotUtil::toAdapterConfig)
+                        .switchIfEmpty(Mono.error(throwable)));
+    }
+
     /**
      * Get adapter credentials by id
      *
@@ -438,33 +808,60 @@ public class BotService {
      * @return
      */
     public Mono<JsonNode> getAdapterCredentials(String adapterID) {
-        String cacheKey = "adapter-credentials: " + adapterID;
-        return getAdapterByID(adapterID).map(new Function<JsonNode, Mono<JsonNode>>() {
-            @Override
-            public Mono<JsonNode> apply(JsonNode adapter) {
-                log.info("getAdapterByID : " + adapter);
-                if (adapter != null) {
-                    String vaultKey;
-                    try {
-                        vaultKey = adapter.path("config").path("credentials").path("variable").asText();
-                    } catch (Exception ex) {
-                        log.error("Exception in fetching adapter variable from json node: " + ex.getMessage());
-                        vaultKey = null;
-                    }
+        return getAdapterWithCredentials(adapterID)
+                .flatMap(adapterWithCredentials -> Mono.justOrEmpty(adapterWithCredentials.getCredentials()));
+    }
 
-                    if (vaultKey != null && !vaultKey.isEmpty()) {
-                        return getVaultCredentials(vaultKey);
-                    }
-                }
-                return Mono.just(null);
-            }
-        }).flatMap(new Function<Mono<JsonNode>, Mono<? extends JsonNode>>() {
-            @Override
-            public Mono<? extends JsonNode> apply(Mono<JsonNode> n) {
-                log.info("Mono FlatMap Level 1");
-                return n;
+    /**
+     * Get adapter with its vault credentials by id, empty if the adapter is not found. The vault call starts as soon
+     * as the adapter is fetched, and the pair is cached as one entry (with the credentials kept encrypted) for as
+     * long as the adapter is cached & the credentials are the current vault credentials.
+     *
+     * @param adapterID
+     * @return
+     */
+    public Mono<AdapterWithCredentials> getAdapterWithCredentials(String adapterID) {
+        String cacheKey = ADAPTER_WITH_CREDENTIALS + adapterID;
+        Object cached = cache.getIfPresent(cacheKey);
+        if (cached instanceof CachedAdapterWithCredentials) {
+            CachedAdapterWithCredentials entry = (CachedAdapterWithCredentials) cached;
+            if (entry.credential == null || (isVaultEnabled()
+                    && entry.credential == vaultCredentialService.getCachedCredential(entry.config.getCredentialsVariable()))) {
+                log.info("getAdapterWithCredentials from cache : " + adapterID);
+                return Mono.just(entry.toAdapterWithCredentials(vaultCredentialService));
             }
-        });
+        }
+        return cacheMissCoalescer.execute(cacheKey, () -> adapterByID(adapterID)
+                        .filter(this::isCacheableNode)
+                        .flatMap(this::withCredentials)
+                        .doOnNext(entry -> {
+                            /* Without credentials, retry the vault on the next call instead of caching the miss */
+                            if (entry.credential != null || entry.config.getCredentialsVariable() == null || !isVaultEnabled()) {
+                                putCache(cacheKey, entry);
+                            }
+                        }))
+                /* The last known adapter is served on errors, but not cached */
+                .onErrorResume(throwable -> staleAdapter(adapterID)
+                        .flatMap(this::withCredentials)
+                        .switchIfEmpty(Mono.error(throwable)))
+                .map(entry -> entry.toAdapterWithCredentials(vaultCredentialService));
+    }
+
+    /**
+     * Pair adapter with its current vault credentials
+     *
+     * @param adapter
+     * @return
+     */
+    private Mono<CachedAdapterWithCredentials> withCredentials(JsonNode adapter) {
+        AdapterConfig config = BotUtil.toAdapterConfig(adapter);
+        String vaultKey = config.getCredentialsVariable();
+        if (vaultKey == null || vaultKey.isEmpty() || !isVaultEnabled()) {
+            return Mono.just(new CachedAdapterWithCredentials(adapter, config, null));
+        }
+        return vaultCredentialService.getCredential(vaultKey)
+                .map(credential -> new CachedAdapterWithCredentials(adapter, config, credential))
+                .defaultIfEmpty(new CachedAdapterWithCredentials(adapter, config, null));
     }
 
     /**
@@ -500,51 +897,12 @@ public class BotService {
      * @return Application
      */
     public Mono<JsonNode> getVaultCredentials(String secretKey) {
-        String adminToken = System.getenv("VAULT_SERVICE_TOKEN");
-        if (adminToken == null || adminToken.isEmpty()) {
-            return Mono.just(null);
+        if (!isVaultEnabled()) {
+            log.error("BotService:getVaultCredentials::Vault credential service not configured, secret: " + secretKey);
+            return Mono.empty();
         }
-        WebClient webClient = WebClient.builder().baseUrl(System.getenv("VAULT_SERVICE_URL")).build();
-        String cacheKey = "adapter-credentials-by-id: " + secretKey;
         log.info("BotService:getVaultCredentials::Calling get vault credentials from uci api: " + secretKey);
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getVaultCredentials from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((JsonNode) cache.getIfPresent(cacheKey));
-        } else {
-            log.info("getVaultCredentials from webclient : " + cache.getIfPresent(cacheKey));
-            return CacheMono.lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? (JsonNode) cache.getIfPresent(key) : null)
-                            .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/secret/" + secretKey).build())
-                            .headers(httpHeaders -> {
-                                httpHeaders.set("ownerId", "8f7ee860-0163-4229-9d2a-01cef53145ba");
-                                httpHeaders.set("ownerOrgId", "org1");
-                                httpHeaders.set("admin-token", adminToken);
-                            })
-                            .retrieve().bodyToMono(String.class).map(response -> {
-                                log.info("BotService:getVaultCredentials::Got Data From UCI Api : cache key : " + cacheKey + " cache data : " + cache.getIfPresent(cacheKey));
-                                if (response != null) {
-                                    ObjectMapper mapper = new ObjectMapper();
-                                    try {
-                                        Map<String, String> credentials = new HashMap<String, String>();
-                                        JsonNode root = mapper.readTree(response);
-                                        if (root.path("result") != null && root.path("result").path(secretKey) != null) {
-                                            return root.path("result").path(secretKey);
-                                        }
-                                        return null;
-                                    } catch (JsonProcessingException e) {
-                                        return null;
-                                    }
-                                }
-                                return null;
-                            })
-                            .doOnError(throwable -> log.error("BotService:getVaultCredentials::Exception: " + throwable.getMessage()))
-                            .doOnNext(value -> cache.put(cacheKey, value))
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() -> Optional.ofNullable(signal.get()).ifPresent(value -> cache.put(key, value))))
-                    .log("cache");
-        }
+        return vaultCredentialService.getCredentials(secretKey);
     }
 
     /**
@@ -554,50 +912,13 @@ public class BotService {
      * @return FormID for the first transformer.
      */
     public Mono<String> getFirstFormByBotID(String botId) {
-        String cacheKey = "form-by-bot-name:" + botId;
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getFirstFormByBotID from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((String) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono.lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? cache.getIfPresent(cacheKey).toString() : null)
-                            .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/bot/" + botId).build())
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .map(new Function<String, String>() {
-                                     @Override
-                                     public String apply(String response) {
-                                         if (response != null) {
-                                             log.info("Call getFirstFormByBotID : " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                             ObjectMapper mapper = new ObjectMapper();
-                                             try {
-                                                 JsonNode root = mapper.readTree(response);
-                                                 if (root.path("result") != null && !root.path("result").isEmpty()
-                                                         && BotUtil.checkBotValidFromJsonNode(root.path("result"))) {
-                                                     return root.path("result").findValue("formID").asText();
-                                                 }
-                                                 return null;
-                                             } catch (JsonProcessingException e) {
-                                                 return null;
-                                             }
-                                         }
-                                         return null;
-                                     }
-                                 }
-                            )
-                            .onErrorReturn(null)
-                            .doOnError(throwable -> log.error("Error in getFirstFormByBotID >>> " + throwable.getMessage()))
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
-        }
+        String cacheKey = FORM_BY_BOT_ID + botId;
+        Function<JsonNode, Mono<String>> formID = botNode -> Mono.justOrEmpty(isCacheableNode(botNode) && isBotNodeValid(botNode)
+                ? getBotNodeFormID(botNode) : null);
+        return cacheLookup("getFirstFormByBotID", cacheKey, () -> botNodeFromId(botId).flatMap(formID),
+                this::isCacheableString)
+                .doOnError(throwable -> log.error("Error in getFirstFormByBotID >>> " + throwable.getMessage()))
+                .onErrorResume(throwable -> formID.apply(staleOrEmpty(BOT_NODE_BY_ID + botId)));
     }
 
     /**
@@ -607,50 +928,13 @@ public class BotService {
      * @return
      */
     public Mono<String> getBotNameByBotID(String botId) {
-        String cacheKey = "bot-name-by-id:" + botId;
-        if (cache.getIfPresent(cacheKey) != null) {
-            log.info("getBotNameByBotID from cache : " + cache.getIfPresent(cacheKey));
-            return Mono.just((String) cache.getIfPresent(cacheKey));
-        } else {
-            return CacheMono.lookup(key -> Mono.justOrEmpty(cache.getIfPresent(cacheKey) != null ? cache.getIfPresent(cacheKey).toString() : null)
-                            .map(Signal::next), cacheKey)
-                    .onCacheMissResume(() -> webClient.get()
-                            .uri(builder -> builder.path("admin/bot/" + botId).build())
-                            .retrieve()
-                            .bodyToMono(String.class)
-                            .map(new Function<String, String>() {
-                                     @Override
-                                     public String apply(String response) {
-                                         if (response != null) {
-                                             log.info("Call getBotNameByBotID : " + response + " cache : " + cache.getIfPresent(cacheKey));
-                                             ObjectMapper mapper = new ObjectMapper();
-                                             try {
-                                                 JsonNode root = mapper.readTree(response);
-                                                 if (root.path("result") != null && !root.path("result").isEmpty()
-                                                         && BotUtil.checkBotValidFromJsonNode(root.path("result"))) {
-                                                     return root.path("result").findValue("name").asText();
-                                                 }
-                                                 return null;
-                                             } catch (JsonProcessingException e) {
-                                                 return null;
-                                             }
-                                         }
-                                         return null;
-                                     }
-                                 }
-                            )
-                            .onErrorReturn(null)
-                            .doOnError(throwable -> log.error("Error in getFirstFormByBotID >>> " + throwable.getMessage()))
-                            .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff())).filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
-                    )
-                    .andWriteWith((key, signal) -> Mono.fromRunnable(() ->
-                            Optional.ofNullable(signal.get()).ifPresent(value -> {
-                                if (value != null && !value.isEmpty())
-                                    cache.put(key, value);
-                            })
-                    ))
-                    .log("cache");
-        }
+        String cacheKey = BOT_NAME_BY_ID + botId;
+        Function<JsonNode, Mono<String>> botName = botNode -> Mono.justOrEmpty(isCacheableNode(botNode) && isBotNodeValid(botNode)
+                ? BotUtil.getBotNodeData(botNode, "name") : null);
+        return cacheLookup("getBotNameByBotID", cacheKey, () -> botNodeFromId(botId).flatMap(botName),
+                this::isCacheableString)
+                .doOnError(throwable -> log.error("Error in getBotNameByBotID >>> " + throwable.getMessage()))
+                .onErrorResume(throwable -> botName.apply(staleOrEmpty(BOT_NODE_BY_ID + botId)));
     }
 
     public Application getButtonLinkedApp(String appName) {
@@ -668,7 +952,7 @@ public class BotService {
 
     private List<Application> getApplications() {
         List<Application> applications = new ArrayList<>();
-        ClientResponse<ApplicationResponse, Void> response = fusionAuthClient.retrieveApplications();
+        ClientResponse<ApplicationResponse, Void> response = callFusionAuth("retrieveApplications", FusionAuthClient::retrieveApplications);
         if (response.wasSuccessful()) {
             applications = response.successResponse.applications;
         } else if (response.exception != null) {
@@ -677,6 +961,41 @@ public class BotService {
         return applications;
     }
 
+    /**
+     * Retrieve all applications without blocking, through the FusionAuth gateway
+     *
+     * @return applications, empty list if the call was unsuccessful
+     */
+    public Mono<List<Application>> getApplicationsReactive() {
+        FusionAuthGateway gateway = fusionAuthGateway.get();
+        if (gateway == null) {
+            return Mono.fromCallable(this::getApplications).subscribeOn(Schedulers.boundedElastic());
+        }
+        return gateway.retrieveApplications();
+    }
+
+    /**
+     * Retrieve Campaign Params From its Identifier without blocking, from the application registry if it is
+     * loaded, else through the FusionAuth gateway
+     *
+     * @param botId
+     * @return application, empty if not found. Errors if the FusionAuth call fails.
+     */
+    public Mono<Application> getCampaignFromIDReactive(String botId) {
+        return Mono.defer(() -> {
+            UUID applicationID = UUID.fromString(botId);
+            Application registered = isApplicationRegistryLoaded() ? applicationRegistryService.getById(applicationID) : null;
+            if (registered != null) {
+                return Mono.just(registered);
+            }
+            FusionAuthGateway gateway = fusionAuthGateway.get();
+            if (gateway == null) {
+                return Mono.fromCallable(() -> getCampaignFromID(botId)).subscribeOn(Schedulers.boundedElastic());
+            }
+            return gateway.retrieveApplication(applicationID);
+        });
+    }
+
     /**
      * Retrieve Campaign Params From its Identifier
      *
@@ -685,8 +1004,12 @@ public class BotService {
      * @throws Exception Error Exception, in failure in Network request.
      */
     public Application getCampaignFromID(String botId) throws Exception {
-        ClientResponse<ApplicationResponse, Void> applicationResponse = fusionAuthClient
-                .retrieveApplication(UUID.fromString(botId));
+        Application registered = isApplicationRegistryLoaded() ? applicationRegistryService.getById(UUID.fromString(botId)) : null;
+        if (registered != null) {
+            return registered;
+        }
+        ClientResponse<ApplicationResponse, Void> applicationResponse = callFusionAuth("retrieveApplication",
+                client -> client.retrieveApplication(UUID.fromString(botId)));
         if (applicationResponse.wasSuccessful()) {
             return applicationResponse.successResponse.application;
         } else if (applicationResponse.exception != null) {
@@ -702,6 +1025,10 @@ public class BotService {
      * @return Application
      */
     private Application getCampaignFromName(String botName) {
+        Application registered = isApplicationRegistryLoaded() ? applicationRegistryService.getByName(botName) : null;
+        if (registered != null) {
+            return registered;
+        }
         List<Application> applications = getApplications();
 
         Application currentApplication = null;
@@ -723,8 +1050,12 @@ public class BotService {
      * @throws Exception Error Exception, in failure in Network request.
      */
     public Application getCampaignFromNameESamwad(String botName) {
+        Application registered = isApplicationRegistryLoaded() ? applicationRegistryService.getByAppName(botName) : null;
+        if (registered != null) {
+            return registered;
+        }
         List<Application> applications = new ArrayList<>();
-        ClientResponse<ApplicationResponse, Void> response = fusionAuthClient.retrieveApplications();
+        ClientResponse<ApplicationResponse, Void> response = callFusionAuth("retrieveApplications", FusionAuthClient::retrieveApplications);
         if (response.wasSuccessful()) {
             applications = response.successResponse.applications;
         } else if (response.exception != null) {
@@ -746,6 +1077,70 @@ public class BotService {
         return currentApplication;
     }
 
+    /**
+     * Check if the application registry can serve application lookups, else they call FusionAuth. Lookups the
+     * registry misses also call FusionAuth, for applications added since its last refresh.
+     *
+     * @return
+     */
+    private boolean isApplicationRegistryLoaded() {
+        return applicationRegistryService != null && applicationRegistryService.isLoaded();
+    }
+
+    @Autowired(required = false)
+    public void setNegativeCache(NegativeCache negativeCache) {
+        this.negativeCache = negativeCache;
+    }
+
+    @Autowired(required = false)
+    public void setRedisCacheService(RedisCacheService redisCacheService) {
+        this.redisCacheService = redisCacheService;
+    }
+
+    @Autowired(required = false)
+    public void setVaultCredentialService(VaultCredentialService vaultCredentialService) {
+        this.vaultCredentialService = vaultCredentialService;
+    }
+
+    @Autowired(required = false)
+    public void setApplicationRegistryService(ApplicationRegistryService applicationRegistryService) {
+        this.applicationRegistryService = applicationRegistryService;
+    }
+
+    @Autowired(required = false)
+    public void setFusionAuthGateway(FusionAuthGateway fusionAuthGateway) {
+        this.fusionAuthGateway.set(fusionAuthGateway);
+    }
+
+    @Autowired(required = false)
+    public void setFusionAuthRateLimiter(@Qualifier("fusionAuthRateLimiter") ClusterRateLimiter fusionAuthRateLimiter) {
+        this.fusionAuthRateLimiter.set(fusionAuthRateLimiter);
+    }
+
+    /**
+     * Make a blocking FusionAuthClient call, through the FusionAuth gateway if set, else on the bounded elastic
+     * scheduler after a token of the FusionAuth rate limit. Throws IllegalStateException on a Reactor non-blocking
+     * thread, reactive code should use the reactive lookups.
+     *
+     * @param operation name for logs & metrics
+     * @param call
+     * @return response, with the exception set if the call failed
+     */
+    private <S, E> ClientResponse<S, E> callFusionAuth(String operation, Function<FusionAuthClient, ClientResponse<S, E>> call) {
+        FusionAuthGateway gateway = fusionAuthGateway.get();
+        if (gateway != null) {
+            return gateway.executeBlocking(operation, call);
+        }
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Blocking call in non-blocking thread " + Thread.currentThread().getName());
+        }
+        ClusterRateLimiter rateLimiter = fusionAuthRateLimiter.get();
+        Mono<Void> permit = rateLimiter != null ? rateLimiter.acquire() : Mono.empty();
+        return permit.then(Mono.fromCallable(() -> call.apply(fusionAuthClient)).subscribeOn(Schedulers.boundedElastic()))
+                .onErrorResume(throwable -> Mono.just(FusionAuthGateway.exceptionResponse(throwable)))
+                .block();
+    }
+
     /**
      * Check if response code sent in api response is ok
      *
@@ -755,4 +1150,678 @@ public class BotService {
     private Boolean isApiResponseOk(String responseCode) {
         return responseCode.equals("OK");
     }
+
+    /**
+     * Return the cached value for cache key, on cache miss resume with fetch & write its value to cache
+     * if cacheable, else to the negative cache. Fetch errors are passed on without writing either, so callers
+     * apply their fallback outside the cache. Concurrent misses for the same cache key share one in-flight fetch.
+     *
+     * @param lookupName
+     * @param cacheKey
+     * @param fetch
+     * @param cacheable
+     * @return
+     */
+    private <T> Mono<T> cacheLookup(String lookupName, String cacheKey, Supplier<Mono<T>> fetch, Predicate<T> cacheable) {
+        return cacheLookup(lookupName, cacheKey, fetch, fetch, cacheable);
+    }
+
+    /**
+     * Return the cached value for cache key, on cache miss resume with fetch. Refresh-ahead reloads with refresh,
+     * so tiered lookups can reload from the source instead of the tier they would read a miss from.
+     *
+     * @param lookupName
+     * @param cacheKey
+     * @param fetch
+     * @param refresh
+     * @param cacheable
+     * @return
+     */
+    private <T> Mono<T> cacheLookup(String lookupName, String cacheKey, Supplier<Mono<T>> fetch, Supplier<Mono<T>> refresh,
+                                    Predicate<T> cacheable) {
+        T cached = cachedValue(cache.getIfPresent(cacheKey));
+        if (cached != null) {
+            log.info(lookupName + " from cache : " + cached);
+            refreshIfDue(lookupName, cacheKey, refresh, cacheable);
+            return Mono.just(cached);
+        }
+        T emptyValue = cachedValue(negativeCache.getIfPresent(cacheKey));
+        if (emptyValue != null) {
+            log.info(lookupName + " from negative cache, no data for cache key: " + cacheKey);
+            return Mono.just(emptyValue);
+        }
+        /* The value is written inside the flight, so the key is only released once a later miss can find it in cache */
+        return cacheMissCoalescer.execute(cacheKey, () -> Mono.justOrEmpty(this.<T>cachedValue(cache.getIfPresent(cacheKey)))
+                        .switchIfEmpty(Mono.defer(fetch).doOnNext(value -> {
+                            if (cacheable.test(value)) {
+                                putCache(cacheKey, value);
+                            } else {
+                                negativeCache.put(cacheKey, value);
+                            }
+                        })))
+                .log("cache");
+    }
+
+    /**
+     * Cast a value read from cache. Each cache key is only written by the lookup of its own value type, so the
+     * value is of the type its lookup expects.
+     *
+     * @param value
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cachedValue(Object value) {
+        return (T) value;
+    }
+
+    /**
+     * Refresh-ahead: if the cached value is older than the configured refresh interval, reload it in background
+     * while the current value keeps being served. The reload replaces the cached value only if the new value
+     * is cacheable, otherwise the current value is served until it expires. A key is reloaded at most once per
+     * refresh interval, also if its reloads fail.
+     *
+     * @param lookupName
+     * @param cacheKey
+     * @param fetch
+     * @param cacheable
+     */
+    private <T> void refreshIfDue(String lookupName, String cacheKey, Supplier<Mono<T>> fetch, Predicate<T> cacheable) {
+        long refreshAfterSeconds = botServiceParams.getCacheRefreshAfterWriteSeconds();
+        if (refreshAfterSeconds <= 0) {
+            return;
+        }
+        /* Partitions have their own expiry, read the age from the partition holding the key */
+        Cache<Object, Object> keyCache = cache instanceof PartitionedCache ? ((PartitionedCache) cache).partitionFor(cacheKey) : cache;
+        OptionalLong age = keyCache.policy().expireAfterWrite()
+                .map(expiration -> expiration.ageOf(cacheKey, TimeUnit.SECONDS))
+                .orElse(OptionalLong.empty());
+        if (age.isPresent() && age.getAsLong() >= refreshAfterSeconds && claimRefresh(cacheKey, age.getAsLong(), refreshAfterSeconds)) {
+            log.info(lookupName + " refresh ahead for cache key: " + cacheKey + ", age: " + age.getAsLong() + "s");
+            /* Written inside the flight, so a miss for the key after the refresh finds the new value */
+            cacheMissCoalescer.execute(cacheKey, () -> Mono.defer(fetch).doOnNext(value -> {
+                        if (cacheable.test(value)) {
+                            putCache(cacheKey, value);
+                            refreshAttempts.invalidate(cacheKey);
+                        }
+                    }))
+                    .subscribe(value -> {
+                    }, throwable -> log.error(lookupName + " refresh ahead failed for cache key: " + cacheKey + ", " + throwable.getMessage()));
+        }
+    }
+
+    /**
+     * Claim the refresh-ahead of a key, once per refresh interval of its cached value's age. A failed or not
+     * cacheable reload leaves the age as it was, without the claim every later hit would reload the key again.
+     *
+     * @param cacheKey
+     * @param age                 age in seconds of the cached value
+     * @param refreshAfterSeconds
+     * @return true if the caller should reload the key
+     */
+    private boolean claimRefresh(String cacheKey, long age, long refreshAfterSeconds) {
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        refreshAttempts.asMap().compute(cacheKey, (key, attemptAge) -> {
+            /* A younger value than at the last attempt was written since */
+            if (attemptAge == null || age < attemptAge || age - attemptAge >= refreshAfterSeconds) {
+                claimed.set(true);
+                return age;
+            }
+            return attemptAge;
+        });
+        return claimed.get();
+    }
+
+    /**
+     * Cache a bot node under every key it can be looked up by: id, name & starting message, its compact config
+     * by id & name, and if the bot is valid its id by name, name by id & first form id. All node keys share
+     * the same bot node instance, the bot config is built once here.
+     *
+     * @param botNode
+     */
+    public void cacheBotNode(JsonNode botNode) {
+        putBotNode(botNode);
+    }
+
+    /**
+     * Cache a bot node under every key it can be looked up by
+     *
+     * @param botNode
+     * @return Map of cache key to value put
+     */
+    private Map<String, Object> putBotNode(JsonNode botNode) {
+        Map<String, Object> entries = new HashMap<>();
+        if (!isCacheableNode(botNode)) {
+            return entries;
+        }
+        BotConfig botConfig = BotUtil.toBotConfig(botNode);
+        String botId = botConfig.getId();
+        String botName = botConfig.getName();
+        String startingMessage = botConfig.getStartingMessage();
+        if (botId != null) {
+            entries.put(BOT_NODE_BY_ID + botId, botNode);
+            entries.put(BOT_CONFIG_BY_ID + botId, botConfig);
+        }
+        if (botName != null) {
+            entries.put(BOT_FOR_NAME + botName, botNode);
+            entries.put(BOT_CONFIG_FOR_NAME + botName, botConfig);
+        }
+        if (startingMessage != null) {
+            entries.put(BOT_FOR_STARTING_MESSAGE + startingMessage, botNode);
+        }
+        if (botId != null && botConfig.isValid()) {
+            if (botName != null) {
+                entries.put(BOT_ID_FOR_BOT_NAME + botName, botId);
+                entries.put(BOT_NAME_BY_ID + botId, botName);
+            }
+            if (botConfig.getFormID() != null) {
+                entries.put(FORM_BY_BOT_ID + botId, botConfig.getFormID());
+            }
+        }
+        entries.forEach(this::putCache);
+        if (botId != null && botServiceParams.isValidityEvictionEnabled()) {
+            botValidityScheduler.schedule(botConfig);
+        }
+        return entries;
+    }
+
+    /**
+     * A bot started or ended: drop the entries kept only for valid bots & derive them again from the cached
+     * bot node, so lookups see the new validity without waiting for expiry
+     *
+     * @param botConfig
+     */
+    private void onValidityBoundary(BotConfig botConfig) {
+        String botId = botConfig.getId();
+        String botName = botConfig.getName();
+        List<String> cacheKeys = new ArrayList<>(Arrays.asList(BOT_NAME_BY_ID + botId, FORM_BY_BOT_ID + botId));
+        if (botName != null) {
+            cacheKeys.add(BOT_ID_FOR_BOT_NAME + botName);
+        }
+        log.info("BotService:onValidityBoundary::bot: " + botId + " is " + (botConfig.isValid() ? "valid" : "invalid")
+                + " now, refreshing cache keys: " + cacheKeys);
+        invalidateCache(cacheKeys);
+        Object botNode = cache.getIfPresent(BOT_NODE_BY_ID + botId);
+        if (botNode instanceof JsonNode) {
+            cacheBotNode((JsonNode) botNode);
+        }
+    }
+
+    /**
+     * Remove every cache entry of a bot, by id and/or name. Keys derived from the cached node
+     * (name, starting message) are removed too, so a renamed bot leaves nothing stale behind.
+     *
+     * @param botId
+     * @param botName
+     */
+    public void invalidateBot(String botId, String botName) {
+        Set<String> botIds = new HashSet<>();
+        Set<String> botNames = new HashSet<>();
+        Set<String> startingMessages = new HashSet<>();
+        Optional.ofNullable(botId).ifPresent(botIds::add);
+        Optional.ofNullable(botName).ifPresent(botNames::add);
+        List<Object> cachedBots = new ArrayList<>();
+        if (botId != null) {
+            cachedBots.add(cache.getIfPresent(BOT_CONFIG_BY_ID + botId));
+            cachedBots.add(cache.getIfPresent(BOT_NODE_BY_ID + botId));
+        }
+        if (botName != null) {
+            cachedBots.add(cache.getIfPresent(BOT_CONFIG_FOR_NAME + botName));
+            cachedBots.add(cache.getIfPresent(BOT_FOR_NAME + botName));
+        }
+        cachedBots.forEach(cached -> {
+            BotConfig botConfig = cached instanceof JsonNode && isCacheableNode((JsonNode) cached)
+                    ? BotUtil.toBotConfig((JsonNode) cached)
+                    : cached instanceof BotConfig ? (BotConfig) cached : null;
+            if (botConfig != null) {
+                Optional.ofNullable(botConfig.getId()).ifPresent(botIds::add);
+                Optional.ofNullable(botConfig.getName()).ifPresent(botNames::add);
+                Optional.ofNullable(botConfig.getStartingMessage()).ifPresent(startingMessages::add);
+            }
+        });
+
+        List<String> cacheKeys = new ArrayList<>();
+        botIds.forEach(id -> cacheKeys.addAll(Arrays.asList(BOT_NODE_BY_ID + id, BOT_CONFIG_BY_ID + id,
+                BOT_NAME_BY_ID + id, FORM_BY_BOT_ID + id)));
+        botNames.forEach(name -> cacheKeys.addAll(Arrays.asList(BOT_FOR_NAME + name, BOT_CONFIG_FOR_NAME + name,
+                BOT_ID_FOR_BOT_NAME + name)));
+        startingMessages.forEach(startingMessage -> cacheKeys.add(BOT_FOR_STARTING_MESSAGE + startingMessage));
+        log.info("BotService:invalidateBot::removing cache keys: " + cacheKeys);
+        invalidateCache(cacheKeys);
+        botIds.forEach(startingMessageIndex::remove);
+        botIds.forEach(botValidityScheduler::cancel);
+    }
+
+    /**
+     * Replace the cached entries of a bot with the given bot node
+     *
+     * @param botNode
+     */
+    public void upsertBot(JsonNode botNode) {
+        invalidateBot(BotUtil.getBotNodeData(botNode, "id"), BotUtil.getBotNodeData(botNode, "name"));
+        cacheBotNode(botNode);
+        if (isCacheableNode(botNode)) {
+            startingMessageIndex.put(botNode);
+        }
+    }
+
+    /**
+     * Remove every cache entry of an adapter, and of the cached bots using it
+     *
+     * @param adapterID
+     */
+    public void invalidateAdapter(String adapterID) {
+        log.info("BotService:invalidateAdapter::removing cache keys for adapter: " + adapterID);
+        Object adapterConfig = cache.getIfPresent(ADAPTER_CONFIG_BY_ID + adapterID);
+        Object adapterWithCredentials = cache.getIfPresent(ADAPTER_WITH_CREDENTIALS + adapterID);
+        if (adapterWithCredentials instanceof CachedAdapterWithCredentials) {
+            adapterConfig = ((CachedAdapterWithCredentials) adapterWithCredentials).config;
+        }
+        if (isVaultEnabled() && adapterConfig instanceof AdapterConfig && ((AdapterConfig) adapterConfig).getCredentialsVariable() != null) {
+            vaultCredentialService.invalidate(((AdapterConfig) adapterConfig).getCredentialsVariable());
+        }
+        invalidateCache(Arrays.asList(ADAPTER_BY_ID + adapterID, ADAPTER_CONFIG_BY_ID + adapterID, ADAPTER_CREDENTIALS + adapterID,
+                ADAPTER_WITH_CREDENTIALS + adapterID));
+        cache.asMap().values().stream()
+                .filter(value -> value instanceof BotConfig && adapterID.equals(((BotConfig) value).getAdapterId()))
+                .map(value -> (BotConfig) value)
+                .collect(Collectors.toList())
+                .forEach(botConfig -> invalidateBot(botConfig.getId(), botConfig.getName()));
+    }
+
+    /**
+     * Replace the cached entries of an adapter with the given adapter node
+     *
+     * @param adapterNode
+     */
+    public void upsertAdapter(JsonNode adapterNode) {
+        String adapterID = BotUtil.getBotNodeData(adapterNode, "id");
+        if (adapterID == null) {
+            return;
+        }
+        invalidateAdapter(adapterID);
+        putCache(ADAPTER_BY_ID + adapterID, adapterNode);
+    }
+
+    /**
+     * Get the bot & adapter nodes currently in cache, by cache key. Credentials & other values are left out.
+     *
+     * @return
+     */
+    public Map<String, JsonNode> getCachedNodes() {
+        Map<String, JsonNode> nodes = new HashMap<>();
+        cache.asMap().forEach((key, value) -> {
+            if (key instanceof String && value instanceof JsonNode && isSnapshotKey((String) key) && isCacheableNode((JsonNode) value)) {
+                nodes.put((String) key, (JsonNode) value);
+            }
+        });
+        return nodes;
+    }
+
+    /**
+     * Keep nodes as last known values for stale-if-error fallback
+     *
+     * @param nodes Map of cache key to node
+     */
+    public void putStaleNodes(Map<String, JsonNode> nodes) {
+        Cache<String, JsonNode> stale = staleNodes();
+        if (stale == null) {
+            return;
+        }
+        nodes.forEach((key, node) -> {
+            if (isSnapshotKey(key) && isCacheableNode(node)) {
+                stale.put(key, node);
+            }
+        });
+    }
+
+    /**
+     * Warm the cache with nodes restored from a snapshot, through the same path as fetched nodes. Keys already
+     * in cache are kept, and restored entries are dropped after ttl unless fetched again meanwhile, so the
+     * campaign service is asked again soon. The nodes are kept as last known values for stale-if-error fallback too.
+     *
+     * @param nodes Map of cache key to node
+     * @param ttl   time restored entries are served for
+     */
+    public void restoreCachedNodes(Map<String, JsonNode> nodes, Duration ttl) {
+        putStaleNodes(nodes);
+        Map<String, Object> restored = new HashMap<>();
+        nodes.forEach((key, node) -> {
+            if (!isSnapshotKey(key) || !isCacheableNode(node) || cache.getIfPresent(key) != null) {
+                return;
+            }
+            if (key.startsWith(ADAPTER_BY_ID)) {
+                putCache(key, node);
+                restored.put(key, node);
+            } else {
+                restored.putAll(putBotNode(node));
+            }
+        });
+        log.info("BotService:restoreCachedNodes::restored " + restored.size() + " cache entries for " + ttl.getSeconds() + "s");
+        Mono.delay(ttl)
+                .subscribe(tick -> restored.forEach((key, value) -> cache.asMap().remove(key, value)));
+    }
+
+    /**
+     * Last known node for cache key if any, else an empty node
+     *
+     * @param cacheKey
+     * @return
+     */
+    private JsonNode staleOrEmpty(String cacheKey) {
+        JsonNode staleNode = staleNode(cacheKey);
+        if (staleNode != null) {
+            log.info("BotService:staleOrEmpty::serving last known value for cache key: " + cacheKey);
+            return staleNode;
+        }
+        return JsonUtil.emptyNode();
+    }
+
+    /**
+     * Last known node for cache key, null if none
+     *
+     * @param cacheKey
+     * @return
+     */
+    private JsonNode staleNode(String cacheKey) {
+        Cache<String, JsonNode> stale = staleNodes();
+        return stale != null ? stale.getIfPresent(cacheKey) : null;
+    }
+
+    /**
+     * Last known nodes, bounded to caffeine.cache.stale.max.size. Created on first use, null if disabled.
+     *
+     * @return
+     */
+    private Cache<String, JsonNode> staleNodes() {
+        if (botServiceParams.getStaleNodesMaxSize() <= 0) {
+            return null;
+        }
+        Cache<String, JsonNode> stale = staleNodes.get();
+        if (stale == null) {
+            synchronized (staleNodes) {
+                stale = staleNodes.get();
+                if (stale == null) {
+                    stale = Caffeine.newBuilder()
+                            .maximumSize(botServiceParams.getStaleNodesMaxSize())
+                            .build();
+                    staleNodes.set(stale);
+                }
+            }
+        }
+        return stale;
+    }
+
+    private boolean isSnapshotKey(String cacheKey) {
+        return SNAPSHOT_KEY_PREFIXES.stream().anyMatch(cacheKey::startsWith);
+    }
+
+    /**
+     * Remove keys from cache, negative cache & last known nodes
+     *
+     * @param cacheKeys
+     */
+    private void invalidateCache(Collection<String> cacheKeys) {
+        cache.invalidateAll(cacheKeys);
+        cacheKeys.forEach(negativeCache::invalidate);
+        Optional.ofNullable(staleNodes.get()).ifPresent(stale -> stale.invalidateAll(cacheKeys));
+        if (isL2Enabled()) {
+            Mono.fromRunnable(() -> redisCacheService.deleteBotConfigCache(cacheKeys))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(null, throwable -> log.error("BotService:invalidateCache::L2 delete failed: " + throwable.getMessage()));
+        }
+    }
+
+    /**
+     * Drop what is kept outside the Caffeine cache for keys starting with prefix, all keys if prefix is null or
+     * empty: last known nodes, the starting message index if the prefix may cover bot nodes (it is rebuilt by
+     * StartingMessageIndexService) and the Redis L2 entries, so the next miss does not reload the invalidated
+     * values from Redis
+     *
+     * @param prefix
+     */
+    public void invalidatePrefix(String prefix) {
+        String keyPrefix = prefix != null ? prefix : "";
+        Optional.ofNullable(staleNodes.get()).ifPresent(stale -> stale.invalidateAll(stale.asMap().keySet().stream()
+                .filter(key -> key.startsWith(keyPrefix))
+                .collect(Collectors.toList())));
+        if (Stream.of(BOT_NODE_BY_ID, BOT_FOR_NAME, BOT_FOR_STARTING_MESSAGE)
+                .anyMatch(botNodePrefix -> botNodePrefix.startsWith(keyPrefix) || keyPrefix.startsWith(botNodePrefix))) {
+            startingMessageIndex.clear();
+        }
+        if (isL2Enabled()) {
+            Mono.fromRunnable(() -> redisCacheService.deleteBotConfigCacheByPrefix(keyPrefix))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(null, throwable -> log.error("BotService:invalidatePrefix::L2 delete failed: " + throwable.getMessage()));
+        }
+    }
+
+    /**
+     * Look up json node in the Redis L2 tier before fetching it. Nodes fetched from the campaign service are
+     * written through to L2 with its own ttl. Redis errors fall back to the fetch.
+     *
+     * @param cacheKey
+     * @param fetch
+     * @return
+     */
+    private Mono<JsonNode> l2Lookup(String cacheKey, Supplier<Mono<JsonNode>> fetch) {
+        if (!isL2Enabled()) {
+            return Mono.defer(fetch);
+        }
+        return Mono.fromCallable(() -> {
+                    String value = redisCacheService.getBotConfigCache(cacheKey);
+                    return value != null ? JsonUtil.getMapper().readTree(value) : null;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(value -> log.info("BotService:l2Lookup::found in redis, cache key: " + cacheKey))
+                .onErrorResume(throwable -> {
+                    log.error("BotService:l2Lookup::L2 read failed for cache key: " + cacheKey + ", " + throwable.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.defer(fetch)
+                        .doOnNext(value -> writeL2(cacheKey, value)));
+    }
+
+    /**
+     * Fetch json node skipping the Redis L2 tier, for refresh-ahead, and write it through to L2
+     *
+     * @param cacheKey
+     * @param fetch
+     * @return
+     */
+    private Mono<JsonNode> l2Refresh(String cacheKey, Supplier<Mono<JsonNode>> fetch) {
+        return Mono.defer(fetch)
+                .doOnNext(value -> writeL2(cacheKey, value));
+    }
+
+    /**
+     * Look up bot nodes by id in the Redis L2 tier, with one round trip
+     *
+     * @param botIds
+     * @return Map of bot id to bot node, for the bots found
+     */
+    private Mono<Map<String, JsonNode>> l2BotNodes(List<String> botIds) {
+        if (!isL2Enabled() || botIds.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return Mono.fromCallable(() -> {
+                    Map<String, JsonNode> botNodes = new HashMap<>();
+                    List<String> cacheKeys = botIds.stream().map(botId -> BOT_NODE_BY_ID + botId).collect(Collectors.toList());
+                    Map<String, String> values = redisCacheService.getBotConfigCache(cacheKeys);
+                    for (String botId : botIds) {
+                        String value = values.get(BOT_NODE_BY_ID + botId);
+                        if (value != null) {
+                            botNodes.put(botId, JsonUtil.getMapper().readTree(value));
+                        }
+                    }
+                    return botNodes;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(throwable -> {
+                    log.error("BotService:l2BotNodes::L2 read failed: " + throwable.getMessage());
+                    return Mono.just(Collections.emptyMap());
+                });
+    }
+
+    /**
+     * Write json node to the Redis L2 tier in background, if it is cacheable
+     *
+     * @param cacheKey
+     * @param value
+     */
+    private void writeL2(String cacheKey, JsonNode value) {
+        if (!isL2Enabled() || !isCacheableNode(value)) {
+            return;
+        }
+        Mono.fromRunnable(() -> redisCacheService.setBotConfigCache(cacheKey, value.toString(), botServiceParams.getCacheL2TtlSeconds()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .subscribe(null, throwable -> log.error("BotService:writeL2::L2 write failed for cache key: " + cacheKey + ", " + throwable.getMessage()));
+    }
+
+    /**
+     * Run campaign service call through the endpoint's circuit breaker, bulkhead & timeout, whichever are enabled.
+     * Rejected calls fail with CallNotPermittedException, so callers fall back to stale or negative values.
+     *
+     * @param endpoint
+     * @param call
+     * @return
+     */
+    private <T> Mono<T> guarded(String endpoint, Mono<T> call) {
+        return endpointGuards.computeIfAbsent(endpoint, name -> new EndpointGuard(name,
+                        botServiceParams.isCircuitBreakerEnabled()
+                                ? new CircuitBreaker(name, botServiceParams.getCircuitBreakerFailureRateThreshold(),
+                                botServiceParams.getCircuitBreakerWindowSize(), botServiceParams.getCircuitBreakerMinimumCalls(),
+                                Duration.ofSeconds(botServiceParams.getCircuitBreakerOpenSeconds()), botServiceParams.getCircuitBreakerHalfOpenCalls())
+                                : null,
+                        botServiceParams.getBulkheadMaxConcurrentCalls() > 0 ? new Bulkhead(name, botServiceParams.getBulkheadMaxConcurrentCalls()) : null,
+                        botServiceParams.getCallTimeoutMillis() > 0 ? Duration.ofMillis(botServiceParams.getCallTimeoutMillis()) : null))
+                .protect(call);
+    }
+
+    /**
+     * Make campaign service request, hedged with a second identical request if it is slower than the endpoint's
+     * latency percentile and hedging is enabled
+     *
+     * @param endpoint
+     * @param request
+     * @return
+     */
+    private <T> Mono<T> hedged(String endpoint, Supplier<Mono<T>> request) {
+        if (!botServiceParams.isHedgeEnabled()) {
+            return Mono.defer(request);
+        }
+        return requestHedgers.computeIfAbsent(endpoint, name -> new RequestHedger(name, botServiceParams.getHedgePercentile(),
+                        Duration.ofMillis(botServiceParams.getHedgeMinDelayMillis()), Duration.ofMillis(botServiceParams.getHedgeDefaultDelayMillis()),
+                        botServiceParams.getHedgeMaxRate()))
+                .hedge(request);
+    }
+
+    private boolean isL2Enabled() {
+        return redisCacheService != null && botServiceParams.isCacheL2Enabled();
+    }
+
+    /**
+     * Check if vault credentials can be resolved, else adapters are served without credentials
+     *
+     * @return
+     */
+    private boolean isVaultEnabled() {
+        return vaultCredentialService != null;
+    }
+
+    /**
+     * Get bot config of the bot node, reusing the one built when the node was cached
+     *
+     * @param botNode
+     * @return
+     */
+    private BotConfig toBotConfig(JsonNode botNode) {
+        Object cached = cache.getIfPresent(BOT_CONFIG_BY_ID + BotUtil.getBotNodeData(botNode, "id"));
+        return cached != null ? (BotConfig) cached : BotUtil.toBotConfig(botNode);
+    }
+
+    /**
+     * Put value in cache & drop the negative cache entry for the key
+     *
+     * @param cacheKey
+     * @param value
+     */
+    private void putCache(String cacheKey, Object value) {
+        cache.put(cacheKey, value);
+        negativeCache.invalidate(cacheKey);
+    }
+
+    /**
+     * Check if bot is valid, false if the bot node misses validity fields. Uses the cached bot config's
+     * pre-parsed validity window if present.
+     *
+     * @param botNode
+     * @return
+     */
+    private boolean isBotNodeValid(JsonNode botNode) {
+        try {
+            String botId = BotUtil.getBotNodeData(botNode, "id");
+            Object botConfig = cache != null && botId != null ? cache.getIfPresent(BOT_CONFIG_BY_ID + botId) : null;
+            return (botConfig instanceof BotConfig ? (BotConfig) botConfig : BotUtil.toBotConfig(botNode)).isValid();
+        } catch (Exception e) {
+            log.error("BotService:isBotNodeValid::Exception: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get first transformer form id from bot node
+     *
+     * @param botNode
+     * @return
+     */
+    private String getBotNodeFormID(JsonNode botNode) {
+        JsonNode formID = botNode.findValue("formID");
+        if (formID != null && !formID.asText().isEmpty()) {
+            return formID.asText();
+        }
+        return null;
+    }
+
+    /**
+     * Check if json node value should be cached
+     *
+     * @param value
+     * @return
+     */
+    private boolean isCacheableNode(JsonNode value) {
+        return value != null && !value.isNull() && !value.isEmpty();
+    }
+
+    /**
+     * Check if string value should be cached
+     *
+     * @param value
+     * @return
+     */
+    private boolean isCacheableString(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    /**
+     * Cached form of AdapterWithCredentials, holding the encrypted vault credential
+     */
+    private static class CachedAdapterWithCredentials {
+        private final JsonNode adapter;
+        private final AdapterConfig config;
+        private final VaultCredentialService.Credential credential;
+
+        private CachedAdapterWithCredentials(JsonNode adapter, AdapterConfig config, VaultCredentialService.Credential credential) {
+            this.adapter = adapter;
+            this.config = config;
+            this.credential = credential;
+        }
+
+        private AdapterWithCredentials toAdapterWithCredentials(VaultCredentialService vaultCredentialService) {
+            return AdapterWithCredentials.builder()
+                    .adapter(adapter)
+                    .config(config)
+                    .credentials(credential != null && vaultCredentialService != null ? vaultCredentialService.decrypt(credential) : null)
+                    .build();
+        }
+    }
 }
@@ -3,7 +3,10 @@ package com.uci.utils;
 import java.time.Duration;
 import java.util.Properties;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,6 +14,7 @@ import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.web.reactive.function.client.WebClient;
@@ -18,6 +22,15 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.cache.JsonSizeWeigher;
+import com.uci.utils.cache.NegativeCache;
+import com.uci.utils.cache.PartitionedCache;
+import com.uci.utils.http.AdaptiveConcurrencyLimiter;
+import com.uci.utils.http.ClusterRateLimiter;
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 
 @Configuration
@@ -36,6 +49,116 @@ public class UtilAppConfiguration {
     @Value("${caffeine.cache.exprie.duration.seconds}")
     public Integer cacheExpireDuration;
 
+    /* Split the cache into bot, adapter & federated user partitions, each bounded by bytes with its own ttl */
+    @Value("${caffeine.cache.partitions.enabled:false}")
+    public Boolean cachePartitionsEnabled;
+
+    @Value("${caffeine.cache.partition.bot.max.weight.bytes:67108864}")
+    public Long botPartitionMaxWeight;
+
+    @Value("${caffeine.cache.partition.bot.expire.duration.seconds:${caffeine.cache.exprie.duration.seconds}}")
+    public Integer botPartitionExpireDuration;
+
+    @Value("${caffeine.cache.partition.adapter.max.weight.bytes:16777216}")
+    public Long adapterPartitionMaxWeight;
+
+    @Value("${caffeine.cache.partition.adapter.expire.duration.seconds:${caffeine.cache.exprie.duration.seconds}}")
+    public Integer adapterPartitionExpireDuration;
+
+    @Value("${caffeine.cache.partition.federated.user.max.weight.bytes:33554432}")
+    public Long federatedUserPartitionMaxWeight;
+
+    @Value("${caffeine.cache.partition.federated.user.expire.duration.seconds:${caffeine.cache.exprie.duration.seconds}}")
+    public Integer federatedUserPartitionExpireDuration;
+
+    @Value("${caffeine.cache.negative.max.size:10000}")
+    public Integer negativeCacheMaxSize;
+
+    @Value("${caffeine.cache.negative.expire.duration.seconds:30}")
+    public Integer negativeCacheExpireDuration;
+
+    /* Connection pool shared by the campaign, vault & health web clients */
+    @Value("${webclient.pool.max.connections:500}")
+    public Integer poolMaxConnections;
+
+    @Value("${webclient.pool.pending.acquire.max.count:1000}")
+    public Integer poolPendingAcquireMaxCount;
+
+    @Value("${webclient.pool.pending.acquire.timeout.millis:45000}")
+    public Long poolPendingAcquireTimeout;
+
+    @Value("${webclient.pool.max.idle.time.seconds:30}")
+    public Long poolMaxIdleTime;
+
+    @Value("${webclient.pool.max.life.time.seconds:300}")
+    public Long poolMaxLifeTime;
+
+    @Value("${webclient.pool.evict.interval.seconds:60}")
+    public Long poolEvictInterval;
+
+    @Value("${webclient.connect.timeout.millis:10000}")
+    public Integer connectTimeout;
+
+    @Value("${webclient.keep.alive.enabled:true}")
+    public Boolean keepAliveEnabled;
+
+    @Value("${webclient.compression.enabled:true}")
+    public Boolean compressionEnabled;
+
+    /* Negotiate HTTP/2, over TLS with ALPN or h2c upgrade for plain http, falls back to HTTP/1.1 */
+    @Value("${webclient.http2.enabled:false}")
+    public Boolean http2Enabled;
+
+    /* Adaptive limit on outstanding campaign service requests, see AdaptiveConcurrencyLimiter */
+    @Value("${webclient.adaptive.limit.initial:20}")
+    public Integer adaptiveLimitInitial;
+
+    @Value("${webclient.adaptive.limit.min:5}")
+    public Integer adaptiveLimitMin;
+
+    @Value("${webclient.adaptive.limit.max:200}")
+    public Integer adaptiveLimitMax;
+
+    @Value("${webclient.adaptive.limit.queue.size:100}")
+    public Integer adaptiveLimitQueueSize;
+
+    @Value("${webclient.adaptive.limit.queue.timeout.millis:1000}")
+    public Long adaptiveLimitQueueTimeout;
+
+    @Value("${webclient.adaptive.limit.tolerance:1.5}")
+    public Double adaptiveLimitTolerance;
+
+    /* Cluster wide token bucket per upstream in Redis, see ClusterRateLimiter */
+    @Value("${rate.limit.campaign.per.second:50}")
+    public Double campaignRateLimit;
+
+    @Value("${rate.limit.campaign.burst:100}")
+    public Long campaignRateLimitBurst;
+
+    @Value("${rate.limit.campaign.prefetch:5}")
+    public Integer campaignRateLimitPrefetch;
+
+    @Value("${rate.limit.campaign.max.wait.millis:1000}")
+    public Long campaignRateLimitMaxWait;
+
+    @Value("${rate.limit.campaign.fallback.per.second:5}")
+    public Double campaignRateLimitFallback;
+
+    @Value("${rate.limit.fusionauth.per.second:50}")
+    public Double fusionAuthRateLimit;
+
+    @Value("${rate.limit.fusionauth.burst:100}")
+    public Long fusionAuthRateLimitBurst;
+
+    @Value("${rate.limit.fusionauth.prefetch:5}")
+    public Integer fusionAuthRateLimitPrefetch;
+
+    @Value("${rate.limit.fusionauth.max.wait.millis:1000}")
+    public Long fusionAuthRateLimitMaxWait;
+
+    @Value("${rate.limit.fusionauth.fallback.per.second:5}")
+    public Double fusionAuthRateLimitFallback;
+
     @Value("${spring.redis.db}")
     private String redisDb;
 
@@ -63,12 +186,117 @@ public class UtilAppConfiguration {
 
     @Bean
     public Cache<Object, Object> cache() {
-        return caffeineCacheBuilder().build();
+        if (!cachePartitionsEnabled) {
+            return caffeineCacheBuilder().build();
+        }
+        return new PartitionedCache("default", caffeineCacheBuilder().build())
+                .addPartition("bot", weightedCache(botPartitionMaxWeight, botPartitionExpireDuration),
+                        "bot-", "Bot-id-for-bot-name: ", "form-by-bot-name:")
+                .addPartition("adapter", weightedCache(adapterPartitionMaxWeight, adapterPartitionExpireDuration),
+                        "adapter-")
+                .addPartition("federated-user", weightedCache(federatedUserPartitionMaxWeight, federatedUserPartitionExpireDuration),
+                        "FEDERATED USERS: ");
+    }
+
+    private Cache<Object, Object> weightedCache(Long maxWeightBytes, Integer expireDurationSeconds) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher(new JsonSizeWeigher())
+                .expireAfterWrite(Duration.ofSeconds(expireDurationSeconds))
+                .recordStats()
+                .build();
+    }
+
+    @Bean
+    public NegativeCache negativeCache() {
+        return new NegativeCache(negativeCacheMaxSize, Duration.ofSeconds(negativeCacheExpireDuration));
+    }
+
+    /**
+     * Pooled connection provider, publishes active, idle & pending connection gauges under
+     * reactor.netty.connection.provider.*
+     *
+     * @return
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider connectionProvider() {
+        return ConnectionProvider.builder("uci-webclient")
+                .maxConnections(poolMaxConnections)
+                .pendingAcquireMaxCount(poolPendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(poolPendingAcquireTimeout))
+                .maxIdleTime(Duration.ofSeconds(poolMaxIdleTime))
+                .maxLifeTime(Duration.ofSeconds(poolMaxLifeTime))
+                .evictInBackground(Duration.ofSeconds(poolEvictInterval))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ReactorClientHttpConnector clientHttpConnector(ConnectionProvider connectionProvider) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .option(ChannelOption.SO_KEEPALIVE, keepAliveEnabled)
+                .keepAlive(keepAliveEnabled)
+                .compress(compressionEnabled);
+        if (http2Enabled) {
+            /* reactor-netty rejects H2 on plain connections, so pick h2 or h2c by the campaign url scheme */
+            httpClient = CAMPAIGN_URL != null && CAMPAIGN_URL.startsWith("https")
+                    ? httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2)
+                    : httpClient.protocol(HttpProtocol.HTTP11, HttpProtocol.H2C);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    /**
+     * Adaptive concurrency limit shared by all campaign service calls, publishes the current limit, in flight &
+     * queued requests under uci.webclient.concurrency.*
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(value = "webclient.adaptive.limit.enabled", havingValue = "true")
+    public AdaptiveConcurrencyLimiter campaignConcurrencyLimiter() {
+        return new AdaptiveConcurrencyLimiter("campaign", adaptiveLimitInitial, adaptiveLimitMin, adaptiveLimitMax,
+                adaptiveLimitQueueSize, Duration.ofMillis(adaptiveLimitQueueTimeout), adaptiveLimitTolerance);
+    }
+
+    /**
+     * Rate limit shared by all instances' campaign service calls, publishes waits, rejections & Redis calls under
+     * uci.ratelimit.*
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(value = "rate.limit.campaign.enabled", havingValue = "true")
+    public ClusterRateLimiter campaignRateLimiter() {
+        return new ClusterRateLimiter("campaign", redisTemplate(), campaignRateLimit, campaignRateLimitBurst,
+                campaignRateLimitPrefetch, Duration.ofMillis(campaignRateLimitMaxWait), campaignRateLimitFallback);
+    }
+
+    /**
+     * Rate limit shared by all instances' FusionAuth calls
+     *
+     * @return
+     */
+    @Bean
+    @ConditionalOnProperty(value = "rate.limit.fusionauth.enabled", havingValue = "true")
+    public ClusterRateLimiter fusionAuthRateLimiter() {
+        return new ClusterRateLimiter("fusionauth", redisTemplate(), fusionAuthRateLimit, fusionAuthRateLimitBurst,
+                fusionAuthRateLimitPrefetch, Duration.ofMillis(fusionAuthRateLimitMaxWait), fusionAuthRateLimitFallback);
     }
 
     @Bean
-    public WebClient getWebClient() {
-        return WebClient.builder().baseUrl(CAMPAIGN_URL).defaultHeader("admin-token", CAMPAIGN_ADMIN_TOKEN).build();
+    public WebClient getWebClient(ReactorClientHttpConnector clientHttpConnector,
+                                  ObjectProvider<AdaptiveConcurrencyLimiter> campaignConcurrencyLimiter,
+                                  @Qualifier("campaignRateLimiter") ObjectProvider<ClusterRateLimiter> campaignRateLimiter) {
+        WebClient.Builder builder = WebClient.builder()
+                .clientConnector(clientHttpConnector)
+                .baseUrl(CAMPAIGN_URL)
+                .defaultHeader("admin-token", CAMPAIGN_ADMIN_TOKEN);
+        /* Wait for a rate limit token before taking a concurrency permit */
+        campaignRateLimiter.ifAvailable(builder::filter);
+        campaignConcurrencyLimiter.ifAvailable(builder::filter);
+        return builder.build();
     }
 
     @SuppressWarnings("ALL")
@@ -4,6 +4,7 @@ import java.util.Map;
 import java.util.function.Function;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthIndicator;
@@ -11,6 +12,7 @@ import org.springframework.boot.actuate.health.Status;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 
@@ -18,6 +20,7 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.uci.utils.http.ClusterRateLimiter;
 import com.uci.utils.kafka.KafkaConfig;
 
 import com.uci.utils.model.ApiResponse;
@@ -43,6 +46,16 @@ public class UtilHealthService {
 
 	@Autowired
 	private ObjectMapper mapper;
+
+	@Autowired(required = false)
+	private ReactorClientHttpConnector clientHttpConnector;
+
+	/* Cluster wide rate limit of the campaign service, null if disabled */
+	@Autowired(required = false)
+	@Qualifier("campaignRateLimiter")
+	private ClusterRateLimiter campaignRateLimiter;
+
+	private WebClient campaignWebClient;
 	
 	/**
 	 * Returns kafka health node with kafka health & details
@@ -69,8 +82,7 @@ public class UtilHealthService {
 	public Mono<JsonNode> getCampaignUrlHealthNode() {
 		ObjectNode failed = mapper.createObjectNode().put("status", Status.DOWN.getCode());
 		try {
-			WebClient webClient = WebClient.create(campaignUrl);
-			return webClient.get()
+			return getCampaignWebClient().get()
 					.uri(builder -> builder.path("admin/health/ping").build())
 					.header("admin-token", campaignAdminToken)
 					.retrieve()
@@ -97,6 +109,25 @@ public class UtilHealthService {
 		}
 	}
 
+	/**
+	 * Campaign web client, created once on the shared connection pool, under the campaign rate limit if enabled
+	 *
+	 * @return WebClient
+	 */
+	private WebClient getCampaignWebClient() {
+		if (campaignWebClient == null) {
+			WebClient.Builder builder = WebClient.builder().baseUrl(campaignUrl);
+			if (clientHttpConnector != null) {
+				builder.clientConnector(clientHttpConnector);
+			}
+			if (campaignRateLimiter != null) {
+				builder.filter(campaignRateLimiter);
+			}
+			campaignWebClient = builder.build();
+		}
+		return campaignWebClient;
+	}
+
 	/**
 	 * Returns the combined health of kafka and campaign.
 	 *
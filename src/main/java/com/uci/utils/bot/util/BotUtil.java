@@ -2,16 +2,21 @@ package com.uci.utils.bot.util;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.Date;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.model.AdapterConfig;
+import com.uci.utils.model.BotConfig;
 import io.r2dbc.postgresql.codec.Json;
 import org.springframework.format.datetime.DateFormatter;
 import org.springframework.stereotype.Component;
@@ -29,6 +34,17 @@ public class BotUtil {
 
 	private static final String disabledStatus = "disabled";
 
+	private static final DateTimeFormatter botDateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+	/* Bot start/end dates parsed to validity boundaries, empty if the date cannot be parsed. Bot dates are local
+	 * date times of the clock's zone, so entries are keyed by zone & date text */
+	private static final Cache<String, Optional<Instant>> botDateBoundaries = Caffeine.newBuilder()
+			.maximumSize(10000)
+			.build();
+
+	/* Clock bot validity is checked against */
+	private static volatile Clock clock = Clock.systemDefaultZone();
+
 	/**
 	 * Get true if bot is valid else invalid message, from json node data
 	 * @param data
@@ -127,24 +143,13 @@ public class BotUtil {
 	 * @return
 	 */
 	public static Boolean checkBotStartDateValid(String startDate) {
-		try {
-			DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        	
-        	/* local date time */
-        	LocalDateTime localNow = LocalDateTime.now();
-        	String dateString = fmt.format(localNow).toString();
-        	LocalDateTime localDateTime = LocalDateTime.parse(dateString, fmt);
-        	
-        	/* bot start date in local date time format */
-        	LocalDateTime localStartDate = LocalDateTime.parse(startDate, fmt);
-            
-			if(localDateTime.compareTo(localStartDate) >= 0) {
-        		return true;
-        	} else {
-        		log.error("Bot is invalid as its start date is greator than the current date.");
-        	}
-		} catch (Exception e) {
-			log.error("Error in checkBotStartDateValid: "+e.getMessage());
+		Instant validFrom = startDate != null ? botStartInstant(startDate) : null;
+		if(validFrom == null) {
+			log.error("Error in checkBotStartDateValid: start date cannot be parsed: "+startDate);
+		} else if(!now().isBefore(validFrom)) {
+			return true;
+		} else {
+			log.error("Bot is invalid as its start date is greator than the current date.");
 		}
 		return false;
 	}
@@ -155,31 +160,18 @@ public class BotUtil {
 	 * @return
 	 */
 	public static Boolean checkBotEndDateValid(String endDate) {
-		try {
-			/* End Date  */
-			if(endDate == null || endDate == "null" || endDate.isEmpty()) {
-				log.info("Bot end date is empty.");
-				return true;
-			}
-			
-			DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        	
-        	/* local date time */
-        	LocalDateTime localNow = LocalDateTime.now();
-        	String dateString = fmt.format(localNow).toString();
-        	LocalDateTime localDateTime = LocalDateTime.parse(dateString, fmt);
-        	
-        	/* bot end date in local date time format */
-        	LocalDateTime localEndDate = LocalDateTime.parse(endDate, fmt);
-        	localEndDate = localEndDate.plusHours(23).plusMinutes(59).plusSeconds(59);
-        	
-        	if(localDateTime.compareTo(localEndDate) < 0) {
-        		return true;
-        	} else {
-        		log.error("Bot is invalid as its end date is less than the current date.");
-        	}
-		} catch (Exception e) {
-			log.error("Error in checkBotEndDateValid: "+e.getMessage());
+		/* End Date  */
+		if(endDate == null || endDate == "null" || endDate.isEmpty()) {
+			log.info("Bot end date is empty.");
+			return true;
+		}
+		Instant validUntil = botEndInstant(endDate);
+		if(validUntil == null) {
+			log.error("Error in checkBotEndDateValid: end date cannot be parsed: "+endDate);
+		} else if(now().isBefore(validUntil)) {
+			return true;
+		} else {
+			log.error("Bot is invalid as its end date is less than the current date.");
 		}
 		return false;
 	}
@@ -249,6 +241,133 @@ public class BotUtil {
 		return null;
 	}
 
+	/**
+	 * Build the compact bot config from bot json node, dates & tags are parsed once here
+	 * @param botNode
+	 * @return
+	 */
+	public static BotConfig toBotConfig(JsonNode botNode) {
+		String endDate = findText(botNode, "endDate");
+		Instant validUntil = endDate != null ? botEndInstant(endDate) : null;
+		boolean invalidEndDate = endDate != null && validUntil == null;
+		String startDate = findText(botNode, "startDate");
+
+		List<String> tags = new ArrayList<>();
+		botNode.path("tags").forEach(tag -> {
+			if(tag.isTextual()) {
+				tags.add(tag.asText().intern());
+			}
+		});
+
+		/* Search results carry the adapter in logic, logicIDs only hold ids there */
+		String adapterId = getBotNodeAdapterId(botNode);
+		if(adapterId.isEmpty()) {
+			adapterId = botNode.path("logic").path(0).path("adapter").path("id").asText();
+		}
+		return BotConfig.builder()
+				.id(getBotNodeData(botNode, "id"))
+				.name(getBotNodeData(botNode, "name"))
+				.startingMessage(getBotNodeData(botNode, "startingMessage"))
+				.status(Optional.ofNullable(findText(botNode, "status")).map(String::intern).orElse(null))
+				.ownerID(getBotNodeData(botNode, "ownerID"))
+				.ownerOrgID(getBotNodeData(botNode, "ownerOrgID"))
+				.adapterId(adapterId.isEmpty() ? null : adapterId)
+				.formID(findText(botNode, "formID"))
+				.tags(Collections.unmodifiableList(tags))
+				.validFrom(startDate != null ? botStartInstant(startDate) : null)
+				.validUntil(validUntil)
+				.invalidEndDate(invalidEndDate)
+				.build();
+	}
+
+	/**
+	 * Build the compact adapter config from adapter json node
+	 * @param adapterNode
+	 * @return
+	 */
+	public static AdapterConfig toAdapterConfig(JsonNode adapterNode) {
+		Map<String, String> config = new HashMap<>();
+		adapterNode.path("config").fields().forEachRemaining(entry -> {
+			if(entry.getValue().isValueNode() && !entry.getValue().isNull()) {
+				config.put(entry.getKey().intern(), entry.getValue().asText());
+			}
+		});
+		return AdapterConfig.builder()
+				.id(getBotNodeData(adapterNode, "id"))
+				.name(getBotNodeData(adapterNode, "name"))
+				.channel(Optional.ofNullable(getBotNodeData(adapterNode, "channel")).map(String::intern).orElse(null))
+				.provider(Optional.ofNullable(getBotNodeData(adapterNode, "provider")).map(String::intern).orElse(null))
+				.credentialsVariable(getBotNodeData(adapterNode.path("config").path("credentials"), "variable"))
+				.config(Collections.unmodifiableMap(config))
+				.build();
+	}
+
+	/**
+	 * Parse bot start/end date, null if it cannot be parsed
+	 * @param date
+	 * @return
+	 */
+	public static LocalDateTime parseBotDate(String date) {
+		try {
+			return LocalDateTime.parse(date, botDateFormatter);
+		} catch (Exception e) {
+			log.error("Error in parseBotDate: "+e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Instant the bot becomes valid from its start date, null if it cannot be parsed
+	 * @param startDate
+	 * @return
+	 */
+	public static Instant botStartInstant(String startDate) {
+		ZoneId zone = clock.getZone();
+		return botDateBoundaries.get("start:" + zone + ":" + startDate, key -> Optional.ofNullable(parseBotDate(startDate))
+				.map(localStartDate -> localStartDate.atZone(zone).toInstant())).orElse(null);
+	}
+
+	/**
+	 * Instant the bot stops being valid from its end date (the end of that day), null if it cannot be parsed
+	 * @param endDate
+	 * @return
+	 */
+	public static Instant botEndInstant(String endDate) {
+		ZoneId zone = clock.getZone();
+		return botDateBoundaries.get("end:" + zone + ":" + endDate, key -> Optional.ofNullable(parseBotDate(endDate))
+				.map(localEndDate -> localEndDate.plusHours(23).plusMinutes(59).plusSeconds(59).atZone(zone).toInstant()))
+				.orElse(null);
+	}
+
+	/**
+	 * Current instant of the clock bot validity is checked against
+	 * @return
+	 */
+	public static Instant now() {
+		return clock.instant();
+	}
+
+	public static Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Replace the clock bot validity is checked against, eg. a fixed clock in tests
+	 * @param validityClock
+	 */
+	public static void setClock(Clock validityClock) {
+		clock = validityClock;
+	}
+
+	/* Same lookup as checkBotValidFromJsonNode, null for missing/empty values */
+	private static String findText(JsonNode botNode, String key) {
+		JsonNode value = botNode.findValue(key);
+		if(value == null || value.isNull() || value.asText().isEmpty() || value.asText().equals("null")) {
+			return null;
+		}
+		return value.asText();
+	}
+
 	/**
 	 * New Conversation Session UUID
 	 * @return
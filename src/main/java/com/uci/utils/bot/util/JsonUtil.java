@@ -0,0 +1,109 @@
+package com.uci.utils.bot.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+public class JsonUtil {
+
+	/* Shared mapper, ObjectMapper is thread safe once configured */
+	private static final ObjectMapper mapper = new ObjectMapper()
+			.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+	/**
+	 * Get the shared object mapper
+	 * @return
+	 */
+	public static ObjectMapper getMapper() {
+		return mapper;
+	}
+
+	/**
+	 * New empty object node
+	 * @return
+	 */
+	public static ObjectNode emptyNode() {
+		return mapper.createObjectNode();
+	}
+
+	/**
+	 * Extract the sub tree at path from response data buffer, the buffer is released.
+	 * Missing node if the path does not exist or the data cannot be parsed.
+	 * @param buffer
+	 * @param path field names & array indexes, eg. "result", "data", 0
+	 * @return
+	 */
+	public static JsonNode extract(DataBuffer buffer, Object... path) {
+		try (InputStream inputStream = buffer.asInputStream()) {
+			return extract(inputStream, path);
+		} catch (IOException e) {
+			log.error("Error in extract json path: "+e.getMessage());
+			return MissingNode.getInstance();
+		} finally {
+			DataBufferUtils.release(buffer);
+		}
+	}
+
+	/**
+	 * Extract the sub tree at path from json input stream. Tokens outside the path are skipped
+	 * without building nodes, only the sub tree at path is read into a tree.
+	 * @param inputStream
+	 * @param path field names & array indexes, eg. "result", "data", 0
+	 * @return
+	 * @throws IOException
+	 */
+	public static JsonNode extract(InputStream inputStream, Object... path) throws IOException {
+		try (JsonParser parser = mapper.getFactory().createParser(inputStream)) {
+			JsonToken token = parser.nextToken();
+			for (Object step : path) {
+				if (step instanceof Integer) {
+					if (token != JsonToken.START_ARRAY) {
+						return MissingNode.getInstance();
+					}
+					token = parser.nextToken();
+					for (int i = 0; i < (Integer) step && token != null && token != JsonToken.END_ARRAY; i++) {
+						parser.skipChildren();
+						token = parser.nextToken();
+					}
+					if (token == null || token == JsonToken.END_ARRAY) {
+						return MissingNode.getInstance();
+					}
+				} else {
+					if (token != JsonToken.START_OBJECT) {
+						return MissingNode.getInstance();
+					}
+					boolean found = false;
+					while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+						String name = parser.getCurrentName();
+						token = parser.nextToken();
+						if (name.equals(step)) {
+							found = true;
+							break;
+						}
+						parser.skipChildren();
+					}
+					if (!found) {
+						return MissingNode.getInstance();
+					}
+				}
+			}
+			if (token == null) {
+				return MissingNode.getInstance();
+			}
+			JsonNode node = mapper.readTree(parser);
+			return node != null ? node : MissingNode.getInstance();
+		}
+	}
+}
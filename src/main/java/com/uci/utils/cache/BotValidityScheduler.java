@@ -0,0 +1,117 @@
+package com.uci.utils.cache;
+
+import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.model.BotConfig;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Schedules a task at the next validity boundary of each cached bot, the moment it starts or ends, so entries
+ * cached only for valid bots can be refreshed right then instead of waiting for expiry. One pending task per
+ * bot, scheduling a bot again replaces its task.
+ */
+@Slf4j
+public class BotValidityScheduler {
+    private final Scheduler scheduler;
+    private final Consumer<BotConfig> onBoundary;
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+
+    /**
+     * @param scheduler scheduler the boundary tasks run on
+     * @param onBoundary called with the bot config once its validity boundary passed
+     */
+    public BotValidityScheduler(Scheduler scheduler, Consumer<BotConfig> onBoundary) {
+        this.scheduler = scheduler;
+        this.onBoundary = onBoundary;
+        Metrics.gauge("uci.cache.validity.scheduled", tasks, Map::size);
+    }
+
+    /**
+     * Schedule the bot's next validity boundary, cancels the pending one if the bot has no boundary left
+     *
+     * @param botConfig
+     */
+    public void schedule(BotConfig botConfig) {
+        String botId = botConfig.getId();
+        if (botId == null) {
+            return;
+        }
+        Instant now = BotUtil.now();
+        Instant boundary = botConfig.nextValidityBoundary(now);
+        if (boundary == null) {
+            cancel(botId);
+            return;
+        }
+        Task current = tasks.get(botId);
+        if (current != null && current.boundary.equals(boundary)) {
+            return;
+        }
+        Task task = new Task(boundary);
+        Task replaced = tasks.put(botId, task);
+        if (replaced != null) {
+            replaced.dispose();
+        }
+        task.setDisposable(scheduler.schedule(() -> {
+            if (tasks.remove(botId, task)) {
+                log.info("BotValidityScheduler:schedule::validity boundary passed for bot: " + botId + ", at: " + boundary);
+                onBoundary.accept(botConfig);
+            }
+        }, Math.max(0, Duration.between(now, boundary).toMillis()), TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Cancel the bot's pending boundary task
+     *
+     * @param botId
+     */
+    public void cancel(String botId) {
+        Task task = tasks.remove(botId);
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    public void cancelAll() {
+        tasks.keySet().forEach(this::cancel);
+    }
+
+    public int getScheduledCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Pending boundary task, may be disposed before its disposable is set
+     */
+    private static class Task {
+        private final Instant boundary;
+        private Disposable disposable;
+        private boolean disposed;
+
+        private Task(Instant boundary) {
+            this.boundary = boundary;
+        }
+
+        private synchronized void setDisposable(Disposable disposable) {
+            if (disposed) {
+                disposable.dispose();
+            }
+            this.disposable = disposable;
+        }
+
+        private synchronized void dispose() {
+            disposed = true;
+            if (disposable != null) {
+                disposable.dispose();
+            }
+        }
+    }
+}
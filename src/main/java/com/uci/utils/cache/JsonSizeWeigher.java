@@ -0,0 +1,58 @@
+package com.uci.utils.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Weighs cache entries by their approximate json size in bytes, so that a partition's maximum weight bounds
+ * its memory rather than its entry count. Json nodes are estimated by walking the tree, without serializing
+ * them, and values of other types get a fixed weight. Weighing never throws, it runs on every put.
+ */
+public class JsonSizeWeigher implements Weigher<Object, Object> {
+    /* Weight of values other than strings & json, e.g. BotConfig or AdapterConfig objects */
+    private static final int DEFAULT_VALUE_WEIGHT = 1024;
+    /* Weight of numbers, booleans & nulls, and of the quotes, colons & commas around a field */
+    private static final int SCALAR_WEIGHT = 8;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = key.toString().length() + valueWeight(value);
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private long valueWeight(Object value) {
+        if (value instanceof String) {
+            return ((String) value).length();
+        }
+        if (value instanceof JsonNode) {
+            return nodeWeight((JsonNode) value);
+        }
+        return DEFAULT_VALUE_WEIGHT;
+    }
+
+    private long nodeWeight(JsonNode node) {
+        if (node.isTextual()) {
+            return node.textValue().length() + 2;
+        }
+        if (node.isArray()) {
+            long weight = 2;
+            for (JsonNode element : node) {
+                weight += nodeWeight(element) + 1;
+            }
+            return weight;
+        }
+        if (node.isObject()) {
+            long weight = 2;
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                weight += field.getKey().length() + SCALAR_WEIGHT + nodeWeight(field.getValue());
+            }
+            return weight;
+        }
+        return SCALAR_WEIGHT;
+    }
+}
@@ -0,0 +1,84 @@
+package com.uci.utils.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Collects single key loads arriving within a short window (or until the batch is full)
+ * and resolves them with one multi key load. At most maxConcurrency batches load at a time,
+ * later batches wait for one to finish. A failed batch fails only its own callers.
+ */
+@Slf4j
+public class MicroBatcher<K, V> {
+    private final String name;
+    private final Function<Collection<K>, Mono<Map<K, V>>> batchLoader;
+    private final Sinks.Many<PendingLoad<K, V>> pendingLoads = Sinks.many().unicast().onBackpressureBuffer();
+    private final DistributionSummary batchSizes;
+
+    /* Concurrent callers may emit at the same time, retry instead of failing */
+    private static final Sinks.EmitFailureHandler RETRY_NON_SERIALIZED =
+            (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED;
+
+    public MicroBatcher(String name, int maxBatchSize, Duration window, int maxConcurrency,
+                        Function<Collection<K>, Mono<Map<K, V>>> batchLoader) {
+        this.name = name;
+        this.batchLoader = batchLoader;
+        this.batchSizes = DistributionSummary.builder("uci.batch.size")
+                .tag("name", name)
+                .register(Metrics.globalRegistry);
+        pendingLoads.asFlux()
+                .bufferTimeout(maxBatchSize, window)
+                /* bufferTimeout fails if a window closes without demand, so queue batches while all loads are busy */
+                .onBackpressureBuffer()
+                .flatMap(this::dispatch, maxConcurrency)
+                .subscribe();
+    }
+
+    /**
+     * Load the value for key as part of the next batch, completes empty if the batch has no value for key
+     *
+     * @param key
+     * @return
+     */
+    public Mono<V> load(K key) {
+        return Mono.defer(() -> {
+            Sinks.One<V> result = Sinks.one();
+            pendingLoads.emitNext(new PendingLoad<>(key, result), RETRY_NON_SERIALIZED);
+            return result.asMono();
+        });
+    }
+
+    private Mono<Void> dispatch(List<PendingLoad<K, V>> batch) {
+        Set<K> keys = new LinkedHashSet<>();
+        batch.forEach(pendingLoad -> keys.add(pendingLoad.key));
+        batchSizes.record(keys.size());
+        log.info("MicroBatcher:" + name + "::loading " + keys.size() + " keys for " + batch.size() + " callers");
+        return Mono.defer(() -> batchLoader.apply(keys))
+                .defaultIfEmpty(Collections.emptyMap())
+                .doOnNext(values -> batch.forEach(pendingLoad -> {
+                    V value = values.get(pendingLoad.key);
+                    if (value != null) {
+                        pendingLoad.result.tryEmitValue(value);
+                    } else {
+                        pendingLoad.result.tryEmitEmpty();
+                    }
+                }))
+                .doOnError(throwable -> batch.forEach(pendingLoad -> pendingLoad.result.tryEmitError(throwable)))
+                .onErrorResume(throwable -> Mono.empty())
+                .then();
+    }
+
+    @AllArgsConstructor
+    private static class PendingLoad<K, V> {
+        private final K key;
+        private final Sinks.One<V> result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.uci.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Short lived cache for lookups which returned no data (unknown starting message, deleted bot, bad adapter id).
+ * Kept apart from the positive cache, with its own size bound & expiry, so that repeated misses are answered
+ * locally without evicting or outliving real entries.
+ */
+public class NegativeCache {
+    private final Cache<Object, Object> cache;
+
+    public NegativeCache(long maxSize, Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, "negative-cache");
+    }
+
+    /**
+     * Get the empty value stored for key, null if the key is not negatively cached
+     *
+     * @param key
+     * @return
+     */
+    public Object getIfPresent(Object key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Store the empty value returned for key
+     *
+     * @param key
+     * @param emptyValue
+     */
+    public void put(Object key, Object emptyValue) {
+        cache.put(key, emptyValue);
+    }
+
+    public void invalidate(Object key) {
+        cache.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Remove the keys matching the filter
+     *
+     * @param keyFilter
+     * @return number of keys removed
+     */
+    public int invalidateIf(Predicate<Object> keyFilter) {
+        List<Object> keys = cache.asMap().keySet().stream().filter(keyFilter).collect(Collectors.toList());
+        cache.invalidateAll(keys);
+        return keys.size();
+    }
+
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,264 @@
+package com.uci.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Cache made of named partitions, each a separate Caffeine cache with its own size bound, expiry & stats.
+ * Keys are routed to a partition by key prefix, keys matching no prefix go to the default partition.
+ * Implements Cache so existing users of the Cache bean keep working unchanged.
+ *
+ * policy() is the policy of the default partition, use partitionFor(key).policy() for a key specific policy.
+ */
+public class PartitionedCache implements Cache<Object, Object> {
+    private final Map<String, Cache<Object, Object>> partitions = new LinkedHashMap<>();
+    private final Map<String, String> prefixRoutes = new LinkedHashMap<>();
+    private final String defaultPartition;
+    private final ConcurrentMap<Object, Object> mapView = new PartitionedMap();
+
+    public PartitionedCache(String defaultPartition, Cache<Object, Object> defaultCache) {
+        this.defaultPartition = defaultPartition;
+        addPartition(defaultPartition, defaultCache);
+    }
+
+    /**
+     * Add a partition holding the keys starting with any of the prefixes
+     *
+     * @param name
+     * @param partition
+     * @param keyPrefixes
+     * @return
+     */
+    public PartitionedCache addPartition(String name, Cache<Object, Object> partition, String... keyPrefixes) {
+        partitions.put(name, partition);
+        for (String keyPrefix : keyPrefixes) {
+            prefixRoutes.put(keyPrefix, name);
+        }
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, partition, name);
+        return this;
+    }
+
+    /**
+     * Get the partition a key is stored in
+     *
+     * @param key
+     * @return
+     */
+    public Cache<Object, Object> partitionFor(Object key) {
+        if (key instanceof String) {
+            for (Map.Entry<String, String> route : prefixRoutes.entrySet()) {
+                if (((String) key).startsWith(route.getKey())) {
+                    return partitions.get(route.getValue());
+                }
+            }
+        }
+        return partitions.get(defaultPartition);
+    }
+
+    /**
+     * Get the partitions by name
+     *
+     * @return
+     */
+    public Map<String, Cache<Object, Object>> getPartitions() {
+        return Collections.unmodifiableMap(partitions);
+    }
+
+    @Override
+    public Object getIfPresent(Object key) {
+        return partitionFor(key).getIfPresent(key);
+    }
+
+    @Override
+    public Object get(Object key, Function<? super Object, ?> mappingFunction) {
+        return partitionFor(key).get(key, mappingFunction);
+    }
+
+    @Override
+    public Map<Object, Object> getAllPresent(Iterable<?> keys) {
+        Map<Object, Object> values = new LinkedHashMap<>();
+        keys.forEach(key -> {
+            Object value = getIfPresent(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        partitionFor(key).put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> map) {
+        map.forEach(this::put);
+    }
+
+    @Override
+    public void invalidate(Object key) {
+        partitionFor(key).invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll(Iterable<?> keys) {
+        keys.forEach(this::invalidate);
+    }
+
+    @Override
+    public void invalidateAll() {
+        partitions.values().forEach(Cache::invalidateAll);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return partitions.values().stream().mapToLong(Cache::estimatedSize).sum();
+    }
+
+    @Override
+    public CacheStats stats() {
+        return partitions.values().stream().map(Cache::stats).reduce(CacheStats.empty(), CacheStats::plus);
+    }
+
+    @Override
+    public ConcurrentMap<Object, Object> asMap() {
+        return mapView;
+    }
+
+    @Override
+    public void cleanUp() {
+        partitions.values().forEach(Cache::cleanUp);
+    }
+
+    @Override
+    public Policy<Object, Object> policy() {
+        return partitions.get(defaultPartition).policy();
+    }
+
+    /**
+     * Map view over all partitions, single key operations are routed to the key's partition
+     */
+    private class PartitionedMap extends AbstractMap<Object, Object> implements ConcurrentMap<Object, Object> {
+        private ConcurrentMap<Object, Object> mapFor(Object key) {
+            return partitionFor(key).asMap();
+        }
+
+        @Override
+        public Object get(Object key) {
+            return mapFor(key).get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return mapFor(key).containsKey(key);
+        }
+
+        @Override
+        public Object put(Object key, Object value) {
+            return mapFor(key).put(key, value);
+        }
+
+        @Override
+        public Object remove(Object key) {
+            return mapFor(key).remove(key);
+        }
+
+        @Override
+        public Object putIfAbsent(Object key, Object value) {
+            return mapFor(key).putIfAbsent(key, value);
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return mapFor(key).remove(key, value);
+        }
+
+        @Override
+        public boolean replace(Object key, Object oldValue, Object newValue) {
+            return mapFor(key).replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public Object replace(Object key, Object value) {
+            return mapFor(key).replace(key, value);
+        }
+
+        @Override
+        public Object computeIfAbsent(Object key, Function<? super Object, ?> mappingFunction) {
+            return mapFor(key).computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public Object computeIfPresent(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            return mapFor(key).computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public Object compute(Object key, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            return mapFor(key).compute(key, remappingFunction);
+        }
+
+        @Override
+        public Object merge(Object key, Object value, BiFunction<? super Object, ? super Object, ?> remappingFunction) {
+            return mapFor(key).merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public int size() {
+            return partitions.values().stream().mapToInt(partition -> partition.asMap().size()).sum();
+        }
+
+        @Override
+        public void clear() {
+            invalidateAll();
+        }
+
+        @Override
+        public Set<Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Entry<Object, Object>>() {
+                @Override
+                public Iterator<Entry<Object, Object>> iterator() {
+                    Iterator<Cache<Object, Object>> partitionIterator = partitions.values().iterator();
+                    return new Iterator<Entry<Object, Object>>() {
+                        private Iterator<Entry<Object, Object>> current = Collections.emptyIterator();
+
+                        @Override
+                        public boolean hasNext() {
+                            while (!current.hasNext() && partitionIterator.hasNext()) {
+                                current = partitionIterator.next().asMap().entrySet().iterator();
+                            }
+                            return current.hasNext();
+                        }
+
+                        @Override
+                        public Entry<Object, Object> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            return current.next();
+                        }
+
+                        @Override
+                        public void remove() {
+                            current.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return PartitionedMap.this.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.uci.utils.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent cache misses for the same key into one in-flight Mono.
+ * The first caller for a key starts the fetch, callers arriving while it is still
+ * running subscribe to the same result. The key is released as soon as the fetch terminates.
+ */
+@Slf4j
+public class ReactiveSingleFlight {
+    private final String name;
+    private final ConcurrentMap<Object, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder fetches = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public ReactiveSingleFlight(String name) {
+        this.name = name;
+        Tags tags = Tags.of("name", name);
+        FunctionCounter.builder("uci.cache.singleflight.fetches", fetches, LongAdder::sum)
+                .tags(tags).register(Metrics.globalRegistry);
+        FunctionCounter.builder("uci.cache.singleflight.coalesced", coalesced, LongAdder::sum)
+                .tags(tags).register(Metrics.globalRegistry);
+        Metrics.gauge("uci.cache.singleflight.inflight", tags, inFlight, ConcurrentMap::size);
+    }
+
+    /**
+     * Execute fetch for the key, or join the fetch already in flight for it
+     *
+     * @param key
+     * @param fetch
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(Object key, Supplier<? extends Mono<? extends T>> fetch) {
+        return Mono.defer(() -> {
+            AtomicBoolean started = new AtomicBoolean(false);
+            Mono<T> flight = (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+                started.set(true);
+                return newFlight(k, fetch);
+            });
+            if (started.get()) {
+                fetches.increment();
+            } else {
+                coalesced.increment();
+                log.info("ReactiveSingleFlight:" + name + "::joined in-flight fetch for key: " + key);
+            }
+            return flight;
+        });
+    }
+
+    private <T> Mono<T> newFlight(Object key, Supplier<? extends Mono<? extends T>> fetch) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        Runnable release = () -> inFlight.remove(key, self.get());
+        Mono<T> flight = Mono.<T>defer(fetch)
+                .doOnTerminate(release)
+                .doOnCancel(release)
+                .cache();
+        self.set(flight);
+        return flight;
+    }
+
+    /**
+     * Number of fetches currently in flight
+     *
+     * @return
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Number of fetches started
+     *
+     * @return
+     */
+    public long fetchCount() {
+        return fetches.sum();
+    }
+
+    /**
+     * Number of callers which joined a fetch already in flight instead of starting their own
+     *
+     * @return
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+}
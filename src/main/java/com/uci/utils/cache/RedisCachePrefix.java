@@ -4,7 +4,8 @@ public enum RedisCachePrefix {
     XMessageDao("XMessageDao"),
     Language("Language"),
     FAUserID("FAUserID"),
-    MinioCDN("MinioCDN");
+    MinioCDN("MinioCDN"),
+    BotConfig("BotConfig");
 
     private String name;
 
@@ -0,0 +1,230 @@
+package com.uci.utils.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.model.BotConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * In memory index of the live (not disabled) bots by normalized starting message: case, unicode form, punctuation
+ * & whitespace differences are ignored. Optionally a message starting with a bot's starting message, at a word
+ * boundary, resolves to that bot, the longest match wins. A normalized message shared by several bots resolves to
+ * the one valid now, or to none if that is ambiguous. The index is immutable & swapped as a whole on rebuild.
+ */
+public class StartingMessageIndex {
+    private static final Pattern PUNCTUATION = Pattern.compile("\\p{P}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Counter exactHits = Metrics.counter("uci.bot.starting.message.index.lookups", "result", "exact");
+    private final Counter prefixHits = Metrics.counter("uci.bot.starting.message.index.lookups", "result", "prefix");
+    private final Counter misses = Metrics.counter("uci.bot.starting.message.index.lookups", "result", "miss");
+    private volatile Index index;
+    private volatile boolean prefixMatchEnabled;
+
+    public StartingMessageIndex() {
+        Metrics.gauge("uci.bot.starting.message.index.size", this, startingMessageIndex -> {
+            Index current = startingMessageIndex.index;
+            return current != null ? current.byMessage.size() : 0;
+        });
+    }
+
+    /**
+     * Normalize a message: NFKC, lower case, punctuation as space, single spaces & trimmed
+     *
+     * @param message
+     * @return normalized message, empty if nothing is left
+     */
+    public static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(message, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = PUNCTUATION.matcher(normalized).replaceAll(" ");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+
+    /**
+     * Replace the index with the given bots
+     *
+     * @param botNodes all bots
+     * @return number of starting messages indexed
+     */
+    public int rebuild(Collection<JsonNode> botNodes) {
+        Map<String, JsonNode> bots = new HashMap<>();
+        for (JsonNode botNode : botNodes) {
+            String botId = BotUtil.getBotNodeData(botNode, "id");
+            if (botId != null) {
+                bots.put(botId, botNode);
+            }
+        }
+        Index rebuilt = new Index(bots);
+        index = rebuilt;
+        return rebuilt.byMessage.size();
+    }
+
+    /**
+     * Add or replace a bot, no op until the index is built
+     *
+     * @param botNode
+     */
+    public synchronized void put(JsonNode botNode) {
+        Index current = index;
+        String botId = BotUtil.getBotNodeData(botNode, "id");
+        if (current == null || botId == null) {
+            return;
+        }
+        Map<String, JsonNode> bots = new HashMap<>(current.bots);
+        bots.put(botId, botNode);
+        index = new Index(bots);
+    }
+
+    /**
+     * Remove a bot, no op until the index is built
+     *
+     * @param botId
+     */
+    public synchronized void remove(String botId) {
+        Index current = index;
+        if (current == null || botId == null || !current.bots.containsKey(botId)) {
+            return;
+        }
+        Map<String, JsonNode> bots = new HashMap<>(current.bots);
+        bots.remove(botId);
+        index = new Index(bots);
+    }
+
+    /**
+     * Drop the index, lookups return null until it is rebuilt
+     */
+    public void clear() {
+        index = null;
+    }
+
+    /**
+     * Find the bot for a message
+     *
+     * @param message
+     * @return bot node, null if the index is not built or no bot matches
+     */
+    public JsonNode lookup(String message) {
+        Index current = index;
+        if (current == null) {
+            return null;
+        }
+        String normalized = normalize(message);
+        JsonNode botNode = current.byMessage.get(normalized);
+        if (botNode != null) {
+            exactHits.increment();
+            return botNode;
+        }
+        botNode = prefixMatchEnabled ? current.longestPrefix(normalized) : null;
+        if (botNode != null) {
+            prefixHits.increment();
+        } else {
+            misses.increment();
+        }
+        return botNode;
+    }
+
+    /**
+     * True once the index was built, until then lookups return null
+     *
+     * @return
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    public void setPrefixMatchEnabled(boolean prefixMatchEnabled) {
+        this.prefixMatchEnabled = prefixMatchEnabled;
+    }
+
+    /**
+     * Bots by normalized starting message, plus a trie of their words for prefix matches
+     */
+    private static class Index {
+        private final Map<String, JsonNode> bots;
+        private final Map<String, JsonNode> byMessage = new HashMap<>();
+        private final TrieNode trie = new TrieNode();
+
+        private Index(Map<String, JsonNode> bots) {
+            this.bots = bots;
+            Instant now = BotUtil.now();
+            Map<String, List<BotConfig>> candidates = new HashMap<>();
+            Map<String, JsonNode> nodesById = new HashMap<>();
+            bots.forEach((botId, botNode) -> {
+                BotConfig botConfig = BotUtil.toBotConfig(botNode);
+                String normalized = normalize(botConfig.getStartingMessage());
+                if (normalized.isEmpty() || "disabled".equalsIgnoreCase(botConfig.getStatus())) {
+                    return;
+                }
+                candidates.computeIfAbsent(normalized, key -> new ArrayList<>()).add(botConfig);
+                nodesById.put(botId, botNode);
+            });
+            candidates.forEach((normalized, botConfigs) -> {
+                BotConfig botConfig = pick(botConfigs, now);
+                if (botConfig != null) {
+                    JsonNode botNode = nodesById.get(botConfig.getId());
+                    byMessage.put(normalized, botNode);
+                    trie.insert(normalized.split(" "), botNode);
+                }
+            });
+        }
+
+        /**
+         * The only bot, else the only one valid now, else none
+         */
+        private static BotConfig pick(List<BotConfig> botConfigs, Instant now) {
+            if (botConfigs.size() == 1) {
+                return botConfigs.get(0);
+            }
+            BotConfig valid = null;
+            for (BotConfig botConfig : botConfigs) {
+                if (botConfig.isValidAt(now)) {
+                    if (valid != null) {
+                        return null;
+                    }
+                    valid = botConfig;
+                }
+            }
+            return valid;
+        }
+
+        private JsonNode longestPrefix(String normalized) {
+            if (normalized.isEmpty()) {
+                return null;
+            }
+            TrieNode node = trie;
+            JsonNode longest = null;
+            for (String word : normalized.split(" ")) {
+                node = node.children.get(word);
+                if (node == null) {
+                    break;
+                }
+                if (node.botNode != null) {
+                    longest = node.botNode;
+                }
+            }
+            return longest;
+        }
+    }
+
+    private static class TrieNode {
+        private final Map<String, TrieNode> children = new HashMap<>();
+        private JsonNode botNode;
+
+        private void insert(String[] words, JsonNode botNode) {
+            TrieNode node = this;
+            for (String word : words) {
+                node = node.children.computeIfAbsent(word, key -> new TrieNode());
+            }
+            node.botNode = botNode;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.uci.utils.cache.controller;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -18,8 +19,10 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.uci.utils.cache.service.CaffeineCacheInvalidationService;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 @RestController
 @Slf4j
@@ -27,6 +30,8 @@ import lombok.extern.slf4j.Slf4j;
 public class CaffeineCacheController {
     @Autowired
     private Cache<Object, Object> cache;
+    @Autowired
+    private CaffeineCacheInvalidationService invalidationService;
     @Value("${spring.caffeine.authorization.key:#{''}}")
     private String authorizationKey;
 
@@ -68,9 +73,7 @@ public class CaffeineCacheController {
     @DeleteMapping(path = "/removeAll")
     public ResponseEntity<Object> removeAll(@RequestHeader(name = "Authorization") String authorizationHeader) {
         try {
-            cache.asMap().keySet().forEach(key -> {
-                removeCache(key.toString());
-            });
+            invalidationService.invalidateLocal(null);
             log.info("All cache removed success");
             Map<String, Object> map = new HashMap<>();
             map.put("message", "Cache removed success");
@@ -85,9 +88,47 @@ public class CaffeineCacheController {
         }
     }
 
-    private void removeCache(final String cacheName) {
-        if (cache.getIfPresent(cacheName) != null) {
-            cache.invalidate(cacheName);
+    /**
+     * call this to invalidate the cache entries with key prefix on this instance
+     */
+    @DeleteMapping(path = "/removeByPrefix")
+    public ResponseEntity<Object> removeByPrefix(@RequestHeader(name = "Authorization") String authorizationHeader,
+                                                 @RequestParam(name = "prefix") String prefix) {
+        if (!authorizationKey.equals(authorizationHeader)) {
+            return unauthorized();
         }
+        Map<String, Object> map = new HashMap<>();
+        map.put("message", "Cache removed success");
+        map.put("status", "success");
+        map.put("evicted", Collections.singletonMap(invalidationService.getNodeId(), invalidationService.invalidateLocal(prefix)));
+        return new ResponseEntity<>(map, HttpStatus.OK);
+    }
+
+    /**
+     * call this to invalidate all cache entries, or the entries with key prefix, on every instance.
+     * Responds with the number of entries evicted per instance.
+     */
+    @DeleteMapping(path = "/cluster/removeAll")
+    public Mono<ResponseEntity<Object>> removeAllFromCluster(@RequestHeader(name = "Authorization") String authorizationHeader,
+                                                             @RequestParam(name = "prefix", required = false) String prefix) {
+        if (!authorizationKey.equals(authorizationHeader)) {
+            return Mono.just(unauthorized());
+        }
+        return invalidationService.invalidateCluster(prefix)
+                .map(evicted -> {
+                    log.info("Cluster cache removed success, prefix: " + prefix + ", evicted: " + evicted);
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("message", "Cache removed success");
+                    map.put("status", "success");
+                    map.put("evicted", evicted);
+                    return new ResponseEntity<Object>(map, HttpStatus.OK);
+                });
+    }
+
+    private ResponseEntity<Object> unauthorized() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("message", "Unauthorized. Invalid secure key.");
+        map.put("status", "failed");
+        return new ResponseEntity<>(map, HttpStatus.UNAUTHORIZED);
     }
 }
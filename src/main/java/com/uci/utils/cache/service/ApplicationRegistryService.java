@@ -0,0 +1,181 @@
+package com.uci.utils.cache.service;
+
+import com.inversoft.rest.ClientResponse;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.http.ClusterRateLimiter;
+import io.fusionauth.client.FusionAuthClient;
+import io.fusionauth.domain.Application;
+import io.fusionauth.domain.api.ApplicationResponse;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * In memory registry of the FusionAuth applications, indexed by id, name & data.appName. Loaded on startup and
+ * reloaded in background on an interval, the indexes are rebuilt & swapped only if an application was added,
+ * removed or changed. Lookups never call FusionAuth.
+ */
+@Service
+@Slf4j
+public class ApplicationRegistryService {
+    @Autowired
+    private FusionAuthClient fusionAuthClient;
+
+    /* Cluster wide rate limit of FusionAuth, null if disabled */
+    @Autowired(required = false)
+    @Qualifier("fusionAuthRateLimiter")
+    private ClusterRateLimiter fusionAuthRateLimiter;
+
+    @Value("${fusionauth.application.registry.enabled:false}")
+    private Boolean registryEnabled;
+
+    @Value("${fusionauth.application.registry.refresh.seconds:60}")
+    private Long refreshSeconds;
+
+    private volatile Index index;
+    private Disposable refreshSchedule;
+
+    @PostConstruct
+    public void init() {
+        if (!registryEnabled) {
+            return;
+        }
+        Metrics.gauge("uci.fusionauth.applications", this, registry -> registry.index != null ? registry.index.byId.size() : 0);
+        try {
+            refresh().block();
+        } catch (Exception e) {
+            log.error("ApplicationRegistryService:init::initial load failed, retrying on the next refresh: " + e.getMessage());
+        }
+        refreshSchedule = Flux.interval(Duration.ofSeconds(refreshSeconds), Duration.ofSeconds(refreshSeconds), Schedulers.boundedElastic())
+                .concatMap(tick -> refresh()
+                        .onErrorResume(throwable -> {
+                            log.error("ApplicationRegistryService:refresh::Exception: " + throwable.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refreshSchedule != null) {
+            refreshSchedule.dispose();
+        }
+    }
+
+    /**
+     * Reload the applications from FusionAuth, keeps the current indexes if the call fails or nothing changed. The
+     * FusionAuthClient call runs on the bounded elastic scheduler, after a token of the FusionAuth rate limit.
+     *
+     * @return true if the indexes were rebuilt
+     */
+    public Mono<Boolean> refresh() {
+        Mono<Void> permit = fusionAuthRateLimiter != null ? fusionAuthRateLimiter.acquire() : Mono.empty();
+        return permit.then(Mono.fromCallable(this::reload).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    private boolean reload() {
+        ClientResponse<ApplicationResponse, Void> response = fusionAuthClient.retrieveApplications();
+        if (!response.wasSuccessful() || response.successResponse == null) {
+            log.error("ApplicationRegistryService:refresh::could not retrieve applications, status: " + response.status
+                    + (response.exception != null ? ", exception: " + response.exception.getMessage() : ""));
+            Metrics.counter("uci.fusionauth.applications.refresh", "result", "failure").increment();
+            return false;
+        }
+        Map<UUID, Integer> fingerprints = fingerprints(response.successResponse.applications);
+        Index current = index;
+        if (current != null && current.fingerprints.equals(fingerprints)) {
+            Metrics.counter("uci.fusionauth.applications.refresh", "result", "unchanged").increment();
+            return false;
+        }
+        index = new Index(response.successResponse.applications, fingerprints);
+        log.info("ApplicationRegistryService:refresh::applications changed, indexed " + index.byId.size() + " applications");
+        Metrics.counter("uci.fusionauth.applications.refresh", "result", "changed").increment();
+        return true;
+    }
+
+    /**
+     * True once the applications were loaded, until then lookups return null
+     *
+     * @return
+     */
+    public boolean isLoaded() {
+        return index != null;
+    }
+
+    public Application getById(UUID id) {
+        Index current = index;
+        return current != null && id != null ? current.byId.get(id) : null;
+    }
+
+    public Application getByName(String name) {
+        Index current = index;
+        return current != null && name != null ? current.byName.get(name) : null;
+    }
+
+    public Application getByAppName(String appName) {
+        Index current = index;
+        return current != null && appName != null ? current.byAppName.get(appName) : null;
+    }
+
+    /**
+     * Hash of each application's json, to detect changes between reloads
+     *
+     * @param applications
+     * @return
+     */
+    private Map<UUID, Integer> fingerprints(List<Application> applications) {
+        Map<UUID, Integer> fingerprints = new HashMap<>();
+        if (applications == null) {
+            return fingerprints;
+        }
+        for (Application application : applications) {
+            try {
+                fingerprints.put(application.id, Arrays.hashCode(JsonUtil.getMapper().writeValueAsBytes(application)));
+            } catch (Exception e) {
+                fingerprints.put(application.id, application.hashCode());
+            }
+        }
+        return fingerprints;
+    }
+
+    /**
+     * Immutable indexes, the last application wins on duplicate names as with a linear scan
+     */
+    private static class Index {
+        private final Map<UUID, Application> byId = new HashMap<>();
+        private final Map<String, Application> byName = new HashMap<>();
+        private final Map<String, Application> byAppName = new HashMap<>();
+        private final Map<UUID, Integer> fingerprints;
+
+        private Index(List<Application> applications, Map<UUID, Integer> fingerprints) {
+            this.fingerprints = fingerprints;
+            if (applications == null) {
+                return;
+            }
+            for (Application application : applications) {
+                if (application.id != null) {
+                    byId.put(application.id, application);
+                }
+                if (application.name != null) {
+                    byName.put(application.name, application);
+                }
+                Object appName = application.data != null ? application.data.get("appName") : null;
+                if (appName != null) {
+                    byAppName.put(appName.toString(), application);
+                }
+            }
+        }
+    }
+}
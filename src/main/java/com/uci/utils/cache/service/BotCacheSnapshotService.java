@@ -0,0 +1,170 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.BotService;
+import com.uci.utils.bot.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Periodically writes the bot & adapter nodes of the BotService cache to a local snapshot file, and restores
+ * them on startup (before the context is ready, so before the app reports healthy) for a short ttl. Credentials
+ * are never written. Restored & snapshotted nodes are also kept by BotService as last known values, served if
+ * the campaign service call fails.
+ *
+ * File format: magic int, version int, entry count int, then per entry: key length int, key utf-8 bytes,
+ * value length int, value json utf-8 bytes.
+ */
+@Service
+@Slf4j
+public class BotCacheSnapshotService {
+    private static final int MAGIC = 0x55434953;
+    private static final int VERSION = 1;
+
+    @Autowired
+    private BotService botService;
+
+    @Value("${caffeine.cache.snapshot.enabled:false}")
+    private Boolean snapshotEnabled;
+
+    @Value("${caffeine.cache.snapshot.path:/tmp/uci-bot-cache.snapshot}")
+    private String snapshotPath;
+
+    @Value("${caffeine.cache.snapshot.interval.seconds:300}")
+    private Long snapshotIntervalSeconds;
+
+    /* Restored entries are served for this long, then fetched again */
+    @Value("${caffeine.cache.snapshot.restore.ttl.seconds:60}")
+    private Long restoreTtlSeconds;
+
+    private Disposable snapshotSchedule;
+
+    @PostConstruct
+    public void init() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        Map<String, JsonNode> nodes = load(Paths.get(snapshotPath));
+        botService.restoreCachedNodes(nodes, Duration.ofSeconds(restoreTtlSeconds));
+        log.info("BotCacheSnapshotService:init::restored " + nodes.size() + " entries from " + snapshotPath);
+
+        snapshotSchedule = Flux.interval(Duration.ofSeconds(snapshotIntervalSeconds), Schedulers.boundedElastic())
+                .concatMap(tick -> Mono.fromRunnable(this::snapshot)
+                        .onErrorResume(throwable -> {
+                            log.error("BotCacheSnapshotService:snapshot::Exception: " + throwable.getMessage());
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (snapshotSchedule != null) {
+            snapshotSchedule.dispose();
+            snapshot();
+        }
+    }
+
+    /**
+     * Write the cached nodes to the snapshot file, through a temp file so a crash never leaves a partial snapshot
+     */
+    public void snapshot() {
+        Map<String, JsonNode> nodes = botService.getCachedNodes();
+        botService.putStaleNodes(nodes);
+        Path path = Paths.get(snapshotPath);
+        try {
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(nodes.size());
+                for (Map.Entry<String, JsonNode> entry : nodes.entrySet()) {
+                    byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    byte[] value = JsonUtil.getMapper().writeValueAsBytes(entry.getValue());
+                    out.writeInt(key.length);
+                    out.write(key);
+                    out.writeInt(value.length);
+                    out.write(value);
+                }
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("BotCacheSnapshotService:snapshot::wrote " + nodes.size() + " entries to " + snapshotPath);
+        } catch (IOException e) {
+            log.error("BotCacheSnapshotService:snapshot::Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Read the snapshot file memory mapped, empty map if it is missing or unreadable
+     *
+     * @param path
+     * @return Map of cache key to node
+     */
+    public Map<String, JsonNode> load(Path path) {
+        Map<String, JsonNode> nodes = new HashMap<>();
+        if (!Files.isRegularFile(path)) {
+            return nodes;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                log.error("BotCacheSnapshotService:load::not a snapshot file: " + path);
+                return nodes;
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                /* Lengths are checked before allocating, a corrupt one could ask for more memory than there is */
+                byte[] key = readField(buffer);
+                byte[] value = key != null ? readField(buffer) : null;
+                if (value == null) {
+                    log.error("BotCacheSnapshotService:load::corrupt entry " + i + " of " + count + " in " + path
+                            + ", restored " + nodes.size() + " entries");
+                    break;
+                }
+                nodes.put(new String(key, StandardCharsets.UTF_8), JsonUtil.getMapper().readTree(value));
+            }
+        } catch (Exception e) {
+            log.error("BotCacheSnapshotService:load::Exception: " + e.getMessage() + ", restored " + nodes.size() + " entries");
+        }
+        return nodes;
+    }
+
+    /**
+     * Read a length prefixed field
+     *
+     * @param buffer
+     * @return field bytes, null if the length is negative or runs past the end of the buffer
+     */
+    private byte[] readField(ByteBuffer buffer) {
+        if (buffer.remaining() < 4) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,111 @@
+package com.uci.utils.cache.service;
+
+import com.uci.utils.BotService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Preloads every bot from admin/bot/search into the BotService cache. The startup run blocks context startup
+ * (bounded by a timeout), so the cache is warm before traffic is accepted. Optionally re-runs on an interval.
+ */
+@Service
+@Slf4j
+public class BotCacheWarmupService {
+    @Autowired
+    private BotService botService;
+
+    @Value("${caffeine.cache.warm.enabled:false}")
+    private Boolean warmEnabled;
+
+    @Value("${caffeine.cache.warm.per.page:100}")
+    private Integer perPage;
+
+    @Value("${caffeine.cache.warm.max.pages:1000}")
+    private Integer maxPages;
+
+    @Value("${caffeine.cache.warm.concurrency:4}")
+    private Integer concurrency;
+
+    @Value("${caffeine.cache.warm.startup.timeout.seconds:120}")
+    private Long startupTimeoutSeconds;
+
+    /* Re-run interval, 0 to warm on startup only */
+    @Value("${caffeine.cache.warm.interval.seconds:0}")
+    private Long intervalSeconds;
+
+    private final AtomicLong botsLoaded = Metrics.gauge("uci.cache.warm.bots", new AtomicLong());
+    private final Counter pagesLoaded = Metrics.counter("uci.cache.warm.pages");
+    private Disposable warmSchedule;
+
+    @PostConstruct
+    public void init() {
+        if (!warmEnabled) {
+            return;
+        }
+        try {
+            warmAll().block(Duration.ofSeconds(startupTimeoutSeconds));
+        } catch (Exception e) {
+            log.error("BotCacheWarmupService:init::startup warm up did not complete: " + e.getMessage());
+        }
+        if (intervalSeconds > 0) {
+            warmSchedule = Flux.interval(Duration.ofSeconds(intervalSeconds), Schedulers.boundedElastic())
+                    .concatMap(tick -> warmAll().onErrorResume(throwable -> Mono.empty()))
+                    .subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (warmSchedule != null) {
+            warmSchedule.dispose();
+        }
+    }
+
+    /**
+     * Load all bots into cache, recording progress & duration metrics
+     *
+     * @return number of bots loaded
+     */
+    public Mono<Long> warmAll() {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            botsLoaded.set(0);
+            log.info("BotCacheWarmupService:warmAll::started");
+            return botService.warmAllBots(perPage, maxPages, concurrency, pageSize -> {
+                        pagesLoaded.increment();
+                        botsLoaded.addAndGet(pageSize);
+                    })
+                    .doOnSuccess(total -> {
+                        record(start, "success");
+                        log.info("BotCacheWarmupService:warmAll::loaded " + total + " bots in "
+                                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+                    })
+                    .doOnError(throwable -> {
+                        record(start, "failure");
+                        log.error("BotCacheWarmupService:warmAll::failed after " + botsLoaded.get() + " bots: " + throwable.getMessage());
+                    });
+        });
+    }
+
+    private void record(long start, String result) {
+        Timer.builder("uci.cache.warm.duration")
+                .tag("result", result)
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,208 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.uci.utils.BotService;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.cache.NegativeCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidates the Caffeine cache of this instance, or of every instance by broadcasting the invalidation
+ * on a Redis pub/sub channel. Each instance invalidates its own cache & publishes the number of entries it
+ * evicted on the ack channel, the instance which started the broadcast collects them for a short window.
+ */
+@Service
+@Slf4j
+public class CaffeineCacheInvalidationService {
+    /* Cache key prefixes holding vault secrets, see BotService */
+    private static final List<String> CREDENTIAL_PREFIXES = Arrays.asList("adapter-credentials: ", "adapter-with-credentials: ");
+
+    @Autowired
+    private Cache<Object, Object> cache;
+
+    @Autowired
+    private NegativeCache negativeCache;
+
+    @Autowired
+    private BotService botService;
+
+    @Autowired
+    private VaultCredentialService vaultCredentialService;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${caffeine.cache.invalidation.broadcast.enabled:false}")
+    private Boolean broadcastEnabled;
+
+    @Value("${caffeine.cache.invalidation.channel:uci-caffeine-invalidation}")
+    private String channel;
+
+    @Value("${caffeine.cache.invalidation.ack.timeout.millis:2000}")
+    private Long ackTimeoutMillis;
+
+    private final String nodeId = Optional.ofNullable(System.getenv("HOSTNAME")).orElse(UUID.randomUUID().toString());
+    private final Map<String, Map<String, Integer>> pendingAcks = new ConcurrentHashMap<>();
+    private RedisMessageListenerContainer listenerContainer;
+
+    @PostConstruct
+    public void subscribe() {
+        if (!broadcastEnabled) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(redisTemplate.getConnectionFactory());
+        listenerContainer.addMessageListener(this::onInvalidation, new ChannelTopic(channel));
+        listenerContainer.addMessageListener(this::onAck, new ChannelTopic(ackChannel()));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+        log.info("CaffeineCacheInvalidationService:subscribe::node: " + nodeId + " listening to channel: " + channel);
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * Invalidate cache entries of this instance, with the entries BotService keeps for them outside the cache.
+     * Vault secrets are keyed by secret, not by adapter, so they are all dropped when credentials are invalidated.
+     *
+     * @param prefix key prefix, all entries if null or empty
+     * @return number of cache entries evicted
+     */
+    public int invalidateLocal(String prefix) {
+        int evicted;
+        if (prefix == null || prefix.isEmpty()) {
+            evicted = cache.asMap().size();
+            cache.invalidateAll();
+            negativeCache.invalidateAll();
+        } else {
+            List<Object> keys = cache.asMap().keySet().stream()
+                    .filter(key -> key.toString().startsWith(prefix))
+                    .collect(Collectors.toList());
+            cache.invalidateAll(keys);
+            negativeCache.invalidateIf(key -> key.toString().startsWith(prefix));
+            evicted = keys.size();
+        }
+        botService.invalidatePrefix(prefix);
+        if (coversCredentials(prefix)) {
+            vaultCredentialService.invalidateAll();
+        }
+        log.info("CaffeineCacheInvalidationService:invalidateLocal::prefix: " + prefix + ", evicted: " + evicted);
+        return evicted;
+    }
+
+    private boolean coversCredentials(String prefix) {
+        return prefix == null || prefix.isEmpty() || CREDENTIAL_PREFIXES.stream()
+                .anyMatch(credentialPrefix -> credentialPrefix.startsWith(prefix) || prefix.startsWith(credentialPrefix));
+    }
+
+    /**
+     * Invalidate cache entries of every instance. Falls back to this instance only if broadcasting is
+     * disabled or the publish fails.
+     *
+     * @param prefix key prefix, all entries if null or empty
+     * @return Map of node id to number of entries evicted, for the nodes which acked within the ack timeout
+     */
+    public Mono<Map<String, Integer>> invalidateCluster(String prefix) {
+        if (!broadcastEnabled) {
+            return Mono.fromCallable(() -> Collections.singletonMap(nodeId, invalidateLocal(prefix)));
+        }
+        String requestId = UUID.randomUUID().toString();
+        return Mono.fromCallable(() -> {
+                    pendingAcks.put(requestId, new ConcurrentHashMap<>());
+                    ObjectNode message = JsonUtil.emptyNode()
+                            .put("requestId", requestId)
+                            .put("origin", nodeId)
+                            .put("prefix", prefix);
+                    return publish(channel, message);
+                })
+                /* Publishing blocks on the Redis connection */
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(receivers -> {
+                    log.info("CaffeineCacheInvalidationService:invalidateCluster::request: " + requestId + " sent to " + receivers + " nodes");
+                    return Mono.delay(Duration.ofMillis(ackTimeoutMillis))
+                            .map(tick -> (Map<String, Integer>) new TreeMap<>(pendingAcks.remove(requestId)));
+                })
+                .onErrorResume(throwable -> {
+                    log.error("CaffeineCacheInvalidationService:invalidateCluster::broadcast failed, invalidating this node only: " + throwable.getMessage());
+                    pendingAcks.remove(requestId);
+                    return Mono.fromCallable(() -> Collections.singletonMap(nodeId, invalidateLocal(prefix)));
+                });
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        try {
+            JsonNode invalidation = JsonUtil.getMapper().readTree(message.getBody());
+            String prefix = invalidation.path("prefix").isTextual() ? invalidation.path("prefix").asText() : null;
+            log.info("CaffeineCacheInvalidationService:onInvalidation::request: " + invalidation.path("requestId").asText()
+                    + " from node: " + invalidation.path("origin").asText());
+            int evicted = invalidateLocal(prefix);
+            ObjectNode ack = JsonUtil.emptyNode()
+                    .put("requestId", invalidation.path("requestId").asText())
+                    .put("node", nodeId)
+                    .put("evicted", evicted);
+            publish(ackChannel(), ack);
+        } catch (Exception e) {
+            log.error("CaffeineCacheInvalidationService:onInvalidation::Exception: " + e.getMessage());
+        }
+    }
+
+    private void onAck(Message message, byte[] pattern) {
+        try {
+            JsonNode ack = JsonUtil.getMapper().readTree(message.getBody());
+            Map<String, Integer> acks = pendingAcks.get(ack.path("requestId").asText());
+            if (acks != null) {
+                acks.put(ack.path("node").asText(), ack.path("evicted").asInt());
+            }
+        } catch (Exception e) {
+            log.error("CaffeineCacheInvalidationService:onAck::Exception: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publish json message on channel
+     *
+     * @param channel
+     * @param message
+     * @return number of subscribers which received the message
+     */
+    private Long publish(String channel, JsonNode message) {
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        byte[] messageBytes = message.toString().getBytes(StandardCharsets.UTF_8);
+        Long receivers = redisTemplate.execute((RedisCallback<Long>) (RedisConnection connection) -> connection.publish(channelBytes, messageBytes));
+        return receivers != null ? receivers : 0L;
+    }
+
+    private String ackChannel() {
+        return channel + ":ack";
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+}
@@ -147,6 +147,81 @@ public class RedisCacheService {
         deleteCache(redisKeyWithPrefix(RedisCachePrefix.XMessageDao.name(), key));
     }
 
+    /**
+     * Get Bot Config json from cache by key
+     *
+     * @param key
+     * @return
+     */
+    public String getBotConfigCache(String key) {
+        if (enabledRedis()) {
+            Object result = redisTemplate.opsForValue().get(redisKeyWithPrefix(RedisCachePrefix.BotConfig.name(), key));
+            return result != null ? result.toString() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Get Bot Config json from cache by keys, with one round trip
+     *
+     * @param keys
+     * @return Map of key to json, for the keys found
+     */
+    public Map<String, String> getBotConfigCache(List<String> keys) {
+        Map<String, String> values = new HashMap<>();
+        if (enabledRedis() && !keys.isEmpty()) {
+            List<String> redisKeys = new ArrayList<>();
+            keys.forEach(key -> redisKeys.add(redisKeyWithPrefix(RedisCachePrefix.BotConfig.name(), key)));
+            List<Object> results = redisTemplate.opsForValue().multiGet(redisKeys);
+            for (int i = 0; results != null && i < results.size(); i++) {
+                if (results.get(i) != null) {
+                    values.put(keys.get(i), results.get(i).toString());
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Set Bot Config json in cache by key, with its own expiry
+     *
+     * @param key
+     * @param value
+     * @param expireSeconds
+     */
+    public void setBotConfigCache(String key, String value, long expireSeconds) {
+        if (enabledRedis()) {
+            redisTemplate.opsForValue().set(redisKeyWithPrefix(RedisCachePrefix.BotConfig.name(), key), value, expireSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Delete Bot Config json in cache by keys
+     *
+     * @param keys
+     */
+    public void deleteBotConfigCache(Collection<String> keys) {
+        if (enabledRedis() && !keys.isEmpty()) {
+            List<String> redisKeys = new ArrayList<>();
+            keys.forEach(key -> redisKeys.add(redisKeyWithPrefix(RedisCachePrefix.BotConfig.name(), key)));
+            redisTemplate.delete(redisKeys);
+        }
+    }
+
+    /**
+     * Delete Bot Config json in cache for keys starting with prefix, all of them if prefix is empty
+     *
+     * @param prefix
+     */
+    public void deleteBotConfigCacheByPrefix(String prefix) {
+        if (enabledRedis()) {
+            Set<String> redisKeys = redisTemplate.keys(redisKeyWithPrefix(RedisCachePrefix.BotConfig.name(), prefix) + "*");
+            if (redisKeys != null && !redisKeys.isEmpty()) {
+                redisTemplate.delete(redisKeys);
+            }
+        }
+    }
+
     /**
      * Get all cache keys by prefix
      *
@@ -0,0 +1,84 @@
+package com.uci.utils.cache.service;
+
+import com.uci.utils.BotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * Builds the BotService starting message index from the bot list on startup and rebuilds it in background on an
+ * interval, so starting messages resolve in memory. Until the first build succeeds lookups go to admin/bot/search.
+ */
+@Service
+@Slf4j
+public class StartingMessageIndexService {
+    @Autowired
+    private BotService botService;
+
+    @Value("${bot.starting.message.index.enabled:false}")
+    private Boolean indexEnabled;
+
+    /* Resolve messages starting with a bot's starting message, at a word boundary */
+    @Value("${bot.starting.message.index.prefix.match:false}")
+    private Boolean prefixMatch;
+
+    @Value("${bot.starting.message.index.refresh.seconds:300}")
+    private Long refreshSeconds;
+
+    @Value("${bot.starting.message.index.per.page:100}")
+    private Integer perPage;
+
+    @Value("${bot.starting.message.index.max.pages:1000}")
+    private Integer maxPages;
+
+    @Value("${bot.starting.message.index.concurrency:4}")
+    private Integer concurrency;
+
+    @Value("${bot.starting.message.index.startup.timeout.seconds:60}")
+    private Long startupTimeoutSeconds;
+
+    private Disposable refreshSchedule;
+
+    @PostConstruct
+    public void init() {
+        if (!indexEnabled) {
+            return;
+        }
+        botService.getStartingMessageIndex().setPrefixMatchEnabled(prefixMatch);
+        try {
+            refresh().block(Duration.ofSeconds(startupTimeoutSeconds));
+        } catch (Exception e) {
+            log.error("StartingMessageIndexService:init::initial build failed, retrying on the next refresh: " + e.getMessage());
+        }
+        refreshSchedule = Flux.interval(Duration.ofSeconds(refreshSeconds), Duration.ofSeconds(refreshSeconds), Schedulers.boundedElastic())
+                .concatMap(tick -> refresh().onErrorResume(throwable -> Mono.empty()))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (refreshSchedule != null) {
+            refreshSchedule.dispose();
+        }
+    }
+
+    /**
+     * Rebuild the index from all bots, keeps the current index if the bot list could not be fetched
+     *
+     * @return number of starting messages indexed
+     */
+    public Mono<Integer> refresh() {
+        return botService.refreshStartingMessageIndex(perPage, maxPages, concurrency)
+                .doOnSuccess(size -> log.info("StartingMessageIndexService:refresh::indexed " + size + " starting messages"))
+                .doOnError(throwable -> log.error("StartingMessageIndexService:refresh::Exception: " + throwable.getMessage()));
+    }
+}
@@ -0,0 +1,268 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.cache.ReactiveSingleFlight;
+import com.uci.utils.dto.BotServiceParams;
+import com.uci.utils.encryption.AESWrapper;
+import com.uci.utils.http.AdaptiveConcurrencyLimiter;
+import com.uci.utils.http.ClusterRateLimiter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.unix.Errors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.PrematureCloseException;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cache of adapter secrets from the vault service. Each secret expires after its lease, the lease sent by the
+ * vault service (lease_duration seconds) or the configured default, and is reloaded in background once the
+ * configured fraction of the lease has passed. Concurrent loads of a secret share one call. Secrets are kept
+ * AES encrypted in memory with a key generated per process.
+ */
+@Service
+@Slf4j
+public class VaultCredentialService {
+    @Autowired
+    private WebClient webClient;
+
+    @Autowired
+    private BotServiceParams botServiceParams;
+
+    @Value("${vault.service.url:${VAULT_SERVICE_URL:}}")
+    private String vaultServiceUrl;
+
+    @Value("${vault.service.token:${VAULT_SERVICE_TOKEN:}}")
+    private String vaultServiceToken;
+
+    @Value("${vault.credentials.lease.seconds:300}")
+    private Long defaultLeaseSeconds;
+
+    /* Fraction of the lease after which the secret is reloaded in background */
+    @Value("${vault.credentials.refresh.ratio:0.8}")
+    private Double refreshRatio;
+
+    @Value("${vault.credentials.max.size:1000}")
+    private Long maxSize;
+
+    private final List<Class<? extends Throwable>> exceptionsToHandleList = Arrays.asList(ConnectTimeoutException.class, Errors.NativeIoException.class, PrematureCloseException.class);
+    private final ReactiveSingleFlight loadCoalescer = new ReactiveSingleFlight("vault-credentials");
+    private final String encryptionKey = newEncryptionKey();
+    private WebClient vaultWebClient;
+    private Cache<String, Credential> credentials;
+
+    @PostConstruct
+    public void init() {
+        credentials = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LeaseExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(Metrics.globalRegistry, credentials, "vault-credentials");
+        if (isConfigured()) {
+            /* Same connection pool as the campaign client, without the campaign service concurrency & rate limits */
+            vaultWebClient = webClient.mutate()
+                    .baseUrl(vaultServiceUrl)
+                    .filters(filters -> filters.removeIf(filter -> filter instanceof AdaptiveConcurrencyLimiter
+                            || filter instanceof ClusterRateLimiter))
+                    .build();
+        } else {
+            log.info("VaultCredentialService:init::vault service url or token not set, vault credentials disabled");
+        }
+    }
+
+    /**
+     * Get the credentials of a vault secret
+     *
+     * @param secretKey - vault key Identifier
+     * @return credentials node, empty if vault is not configured or the secret is not found
+     */
+    public Mono<JsonNode> getCredentials(String secretKey) {
+        return getCredential(secretKey).flatMap(credential -> Mono.justOrEmpty(decrypt(credential)));
+    }
+
+    /**
+     * Get the encrypted credential of a vault secret, from cache or loaded from the vault service
+     *
+     * @param secretKey
+     * @return credential, empty if vault is not configured or the secret is not found
+     */
+    public Mono<Credential> getCredential(String secretKey) {
+        if (!isConfigured()) {
+            return Mono.empty();
+        }
+        Credential credential = getCachedCredential(secretKey);
+        if (credential != null) {
+            log.info("VaultCredentialService:getCredential::from cache, secret: " + secretKey);
+            return Mono.just(credential);
+        }
+        return load(secretKey);
+    }
+
+    /**
+     * Get the cached encrypted credential of a vault secret without loading it, reloads it in background if due.
+     * A reload or invalidation replaces the cached instance, so callers holding a credential can detect it is
+     * no longer current by comparing with this.
+     *
+     * @param secretKey
+     * @return credential, null if not cached or expired
+     */
+    public Credential getCachedCredential(String secretKey) {
+        Credential credential = credentials.getIfPresent(secretKey);
+        if (credential != null && System.nanoTime() >= credential.refreshAtNanos) {
+            load(secretKey).subscribe(value -> {}, throwable -> {});
+        }
+        return credential;
+    }
+
+    /**
+     * Decrypt the credential
+     *
+     * @param credential
+     * @return credentials node, null if it can not be decrypted
+     */
+    public JsonNode decrypt(Credential credential) {
+        String json = AESWrapper.decrypt(credential.encryptedValue, encryptionKey);
+        if (json == null) {
+            return null;
+        }
+        try {
+            return JsonUtil.getMapper().readTree(json);
+        } catch (Exception e) {
+            log.error("VaultCredentialService:decrypt::Exception: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Drop a cached secret, the next call loads it again
+     *
+     * @param secretKey
+     */
+    public void invalidate(String secretKey) {
+        credentials.invalidate(secretKey);
+    }
+
+    public void invalidateAll() {
+        credentials.invalidateAll();
+    }
+
+    /**
+     * Load the secret from the vault service & cache it, one call per secret at a time
+     *
+     * @param secretKey
+     * @return
+     */
+    private Mono<Credential> load(String secretKey) {
+        return loadCoalescer.execute(secretKey, () -> vaultWebClient.get()
+                .uri(builder -> builder.path("admin/secret/" + secretKey).build())
+                .headers(httpHeaders -> {
+                    httpHeaders.set("ownerId", "8f7ee860-0163-4229-9d2a-01cef53145ba");
+                    httpHeaders.set("ownerOrgId", "org1");
+                    httpHeaders.set("admin-token", vaultServiceToken);
+                })
+                .retrieve()
+                .bodyToMono(DataBuffer.class)
+                .map(buffer -> JsonUtil.extract(buffer))
+                .retryWhen(Retry.backoff(botServiceParams.getWebclientRetryMaxAttempts(), Duration.ofSeconds(botServiceParams.getGetWebclientMinBackoff()))
+                        .filter(throwable -> exceptionsToHandleList.stream().anyMatch(exception -> exception.isInstance(throwable))))
+                .flatMap(root -> {
+                    JsonNode secret = root.path("result").path(secretKey);
+                    if (secret.isMissingNode() || secret.isNull()) {
+                        log.info("VaultCredentialService:load::secret not found: " + secretKey);
+                        return Mono.empty();
+                    }
+                    Credential credential = newCredential(secret, leaseOf(root));
+                    credentials.put(secretKey, credential);
+                    return Mono.just(credential);
+                })
+                .doOnError(throwable -> log.error("VaultCredentialService:load::Exception: " + throwable.getMessage())));
+    }
+
+    /**
+     * Lease of the response, lease_duration in seconds if sent by the vault service else the default lease
+     *
+     * @param root
+     * @return
+     */
+    private Duration leaseOf(JsonNode root) {
+        JsonNode leaseDuration = root.path("lease_duration");
+        if (leaseDuration.canConvertToLong() && leaseDuration.asLong() > 0) {
+            return Duration.ofSeconds(leaseDuration.asLong());
+        }
+        return Duration.ofSeconds(defaultLeaseSeconds);
+    }
+
+    private Credential newCredential(JsonNode secret, Duration lease) {
+        try {
+            long now = System.nanoTime();
+            return new Credential(AESWrapper.encrypt(secret.toString(), encryptionKey), lease.toNanos(),
+                    now + (long) (lease.toNanos() * refreshRatio));
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not encrypt vault credentials", e);
+        }
+    }
+
+    private boolean isConfigured() {
+        return vaultServiceUrl != null && !vaultServiceUrl.isEmpty()
+                && vaultServiceToken != null && !vaultServiceToken.isEmpty();
+    }
+
+    private static String newEncryptionKey() {
+        byte[] key = new byte[16];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    /**
+     * Encrypted secret with its lease
+     */
+    public static final class Credential {
+        private final String encryptedValue;
+        private final long leaseNanos;
+        private final long refreshAtNanos;
+
+        private Credential(String encryptedValue, long leaseNanos, long refreshAtNanos) {
+            this.encryptedValue = encryptedValue;
+            this.leaseNanos = leaseNanos;
+            this.refreshAtNanos = refreshAtNanos;
+        }
+    }
+
+    /**
+     * Expire each credential after its own lease, a reload renews the lease
+     */
+    private static class LeaseExpiry implements Expiry<String, Credential> {
+        @Override
+        public long expireAfterCreate(String key, Credential value, long currentTime) {
+            return value.leaseNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Credential value, long currentTime, long currentDuration) {
+            return value.leaseNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Credential value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -11,4 +11,74 @@ public class BotServiceParams {
     private long webclientRetryMaxAttempts;
     @Value("${webclient.retryMinBackoff}")
     private long getWebclientMinBackoff;
+    /* Reload cached lookups in background once older than this, 0 to disable */
+    @Value("${caffeine.cache.refresh.after.write.seconds:0}")
+    private long cacheRefreshAfterWriteSeconds;
+    /* Resolve bot nodes by id with multi id requests to the campaign service */
+    @Value("${webclient.bot.batch.enabled:false}")
+    private boolean botBatchEnabled;
+    @Value("${webclient.bot.batch.path:admin/bot/batch}")
+    private String botBatchPath;
+    @Value("${webclient.bot.batch.max.size:50}")
+    private int botBatchMaxSize;
+    @Value("${webclient.bot.batch.window.millis:10}")
+    private long botBatchWindowMillis;
+    /* Multi id requests in flight at a time */
+    @Value("${webclient.bot.batch.concurrency:4}")
+    private int botBatchConcurrency;
+    /* Redis L2 tier for bot & adapter nodes, checked on Caffeine misses before the campaign service */
+    @Value("${redis.cache.bot.enabled:false}")
+    private boolean cacheL2Enabled;
+    @Value("${redis.cache.bot.ttl.seconds:3600}")
+    private long cacheL2TtlSeconds;
+    /* Per endpoint circuit breaker around campaign service calls, failing fast to cached, stale or negative values */
+    @Value("${webclient.circuit.breaker.enabled:false}")
+    private boolean circuitBreakerEnabled;
+    @Value("${webclient.circuit.breaker.failure.rate.threshold:50}")
+    private int circuitBreakerFailureRateThreshold;
+    @Value("${webclient.circuit.breaker.window.size:20}")
+    private int circuitBreakerWindowSize;
+    @Value("${webclient.circuit.breaker.minimum.calls:10}")
+    private int circuitBreakerMinimumCalls;
+    @Value("${webclient.circuit.breaker.open.seconds:30}")
+    private long circuitBreakerOpenSeconds;
+    @Value("${webclient.circuit.breaker.half.open.calls:3}")
+    private int circuitBreakerHalfOpenCalls;
+    /* Max concurrent calls per campaign service endpoint, 0 for no limit */
+    @Value("${webclient.bulkhead.max.concurrent.calls:0}")
+    private int bulkheadMaxConcurrentCalls;
+    /* Timeout of each campaign service call, 0 for none */
+    @Value("${webclient.call.timeout.millis:0}")
+    private long callTimeoutMillis;
+    /* Hedge admin/bot lookups slower than the latency percentile with a second identical request */
+    @Value("${webclient.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+    @Value("${webclient.hedge.percentile:0.95}")
+    private double hedgePercentile;
+    @Value("${webclient.hedge.min.delay.millis:10}")
+    private long hedgeMinDelayMillis;
+    @Value("${webclient.hedge.default.delay.millis:200}")
+    private long hedgeDefaultDelayMillis;
+    /* Max fraction of requests hedged */
+    @Value("${webclient.hedge.max.rate:0.05}")
+    private double hedgeMaxRate;
+    /* Refresh the cache entries of a bot the moment it starts or ends */
+    @Value("${caffeine.cache.validity.eviction.enabled:true}")
+    private boolean validityEvictionEnabled;
+    /* Bulk enrollment: users sent per chunk & chunks in flight */
+    @Value("${webclient.bot.add.users.chunk.size:50}")
+    private int addUsersChunkSize;
+    @Value("${webclient.bot.add.users.concurrency:4}")
+    private int addUsersConcurrency;
+    /* Multi user add endpoint, {botId} is replaced by the bot id. Empty to add the users of a chunk one by one */
+    @Value("${webclient.bot.add.users.path:}")
+    private String addUsersPath;
+    /* Users added to a bot are remembered & skipped by bulk enrollment, 0 to disable */
+    @Value("${caffeine.cache.enrolled.users.max.size:100000}")
+    private long enrolledUsersCacheMaxSize;
+    @Value("${caffeine.cache.enrolled.users.ttl.seconds:86400}")
+    private long enrolledUsersCacheTtlSeconds;
+    /* Last known bot & adapter nodes kept for stale-if-error fallback, 0 to disable */
+    @Value("${caffeine.cache.stale.max.size:10000}")
+    private long staleNodesMaxSize;
 }
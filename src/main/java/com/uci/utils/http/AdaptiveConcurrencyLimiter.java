@@ -0,0 +1,251 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import okhttp3.Interceptor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adaptive limit on the requests outstanding to an upstream, gradient style: the limit follows the ratio of the
+ * long term (no load) latency to the recent latency, growing by about sqrt(limit) while latency stays at its
+ * baseline & shrinking as requests start queueing upstream. Dropped requests (errors, 5xx) shrink the limit.
+ * Requests over the limit wait in a bounded queue until a permit frees up or their deadline passes, then fail
+ * with CallNotPermittedException so callers fall back to cached values. Usable as a WebClient filter and as an
+ * OkHttp interceptor.
+ */
+public class AdaptiveConcurrencyLimiter implements ExchangeFilterFunction {
+    private static final double SHORT_RTT_ALPHA = 0.1;
+    private static final double LONG_RTT_ALPHA = 0.002;
+    private static final double SMOOTHING = 0.2;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueued;
+    private final Duration queueTimeout;
+    /* Recent latency may exceed the long term latency by this factor before the limit shrinks */
+    private final double tolerance;
+    private final Deque<MonoSink<Permit>> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double shortRtt;
+    private double longRtt;
+
+    /**
+     * @param name
+     * @param initialLimit
+     * @param minLimit
+     * @param maxLimit
+     * @param maxQueued max requests waiting for a permit, 0 to shed requests over the limit right away
+     * @param queueTimeout max time a request waits for a permit
+     * @param tolerance
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, int maxQueued,
+                                      Duration queueTimeout, double tolerance) {
+        this.name = name;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.queueTimeout = queueTimeout;
+        this.tolerance = Math.max(1, tolerance);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        Tags tags = Tags.of("name", name);
+        Metrics.gauge("uci.webclient.concurrency.limit", tags, this, AdaptiveConcurrencyLimiter::getLimit);
+        Metrics.gauge("uci.webclient.concurrency.inflight", tags, this, AdaptiveConcurrencyLimiter::getInFlight);
+        Metrics.gauge("uci.webclient.concurrency.queued", tags, this, AdaptiveConcurrencyLimiter::getQueued);
+    }
+
+    /**
+     * Get a permit, right away if under the limit else once one is released
+     *
+     * @return permit, errors with CallNotPermittedException if the queue is full or the deadline passed
+     */
+    public Mono<Permit> acquire() {
+        return Mono.<Permit>create(sink -> {
+                    Permit permit;
+                    synchronized (this) {
+                        if (inFlight < (int) limit) {
+                            permit = grant();
+                        } else if (waiters.size() < maxQueued) {
+                            waiters.addLast(sink);
+                            sink.onDispose(() -> removeWaiter(sink));
+                            return;
+                        } else {
+                            permit = null;
+                        }
+                    }
+                    if (permit != null) {
+                        sink.success(permit);
+                    } else {
+                        sink.error(reject("queue full"));
+                    }
+                })
+                .timeout(queueTimeout, Mono.defer(() -> Mono.error(reject("queue timeout"))));
+    }
+
+    /**
+     * WebClient filter, the latency sample is the time until response headers
+     */
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return acquire().flatMap(permit -> next.exchange(request)
+                .doOnSuccess(response -> permit.release(response == null || !response.statusCode().is5xxServerError()))
+                .doOnError(throwable -> permit.release(false))
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        permit.cancel();
+                    }
+                }));
+    }
+
+    /**
+     * OkHttp interceptor for blocking calls, waits on the calling thread until a permit frees up or the queue
+     * timeout passes. Throws IllegalStateException on a Reactor non-blocking thread, calls through it must run on
+     * blocking threads such as Schedulers.boundedElastic(), reactive code should use the WebClient filter.
+     *
+     * @return
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            /* block() checks the thread only after subscribing, which would take a permit & drop it */
+            if (Schedulers.isInNonBlockingThread()) {
+                throw new IllegalStateException("Blocking call in non-blocking thread " + Thread.currentThread().getName());
+            }
+            Permit permit = acquire().block();
+            boolean success = false;
+            try {
+                okhttp3.Response response = chain.proceed(chain.request());
+                success = response.code() < 500;
+                return response;
+            } finally {
+                permit.release(success);
+            }
+        };
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return waiters.size();
+    }
+
+    private Permit grant() {
+        inFlight++;
+        return new Permit(System.nanoTime(), inFlight);
+    }
+
+    private synchronized void removeWaiter(MonoSink<Permit> sink) {
+        waiters.remove(sink);
+    }
+
+    /**
+     * Release a permit, updating the limit with its sample, and hand the freed permits to waiting requests
+     */
+    private void release(Permit permit, boolean sampled, boolean success) {
+        Deque<MonoSink<Permit>> granted = new ArrayDeque<>();
+        Deque<Permit> permits = new ArrayDeque<>();
+        synchronized (this) {
+            inFlight--;
+            if (sampled) {
+                update(System.nanoTime() - permit.startNanos, permit.inFlightAtStart, success);
+            }
+            while (!waiters.isEmpty() && inFlight < (int) limit) {
+                granted.addLast(waiters.pollFirst());
+                permits.addLast(grant());
+            }
+        }
+        while (!granted.isEmpty()) {
+            MonoSink<Permit> sink = granted.pollFirst();
+            Permit next = permits.pollFirst();
+            /* The waiter may have timed out meanwhile, the permit is not used then */
+            AtomicBoolean delivered = new AtomicBoolean(false);
+            sink.onCancel(() -> {
+                if (delivered.compareAndSet(false, true)) {
+                    next.cancel();
+                }
+            });
+            if (delivered.compareAndSet(false, true)) {
+                sink.success(next);
+            }
+        }
+    }
+
+    private void update(long rttNanos, int inFlightAtStart, boolean success) {
+        if (!success) {
+            limit = Math.max(minLimit, limit * DROP_BACKOFF);
+            return;
+        }
+        shortRtt = shortRtt == 0 ? rttNanos : shortRtt + SHORT_RTT_ALPHA * (rttNanos - shortRtt);
+        longRtt = longRtt == 0 ? rttNanos : longRtt + LONG_RTT_ALPHA * (rttNanos - longRtt);
+        /* Let the baseline recover after a long stretch of high latency */
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        /* Far under the limit the latency says nothing about the limit */
+        if (inFlightAtStart < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    private CallNotPermittedException reject(String reason) {
+        Metrics.counter("uci.webclient.concurrency.rejected", "name", name, "reason", reason.replace(' ', '_')).increment();
+        return new CallNotPermittedException(name, reason);
+    }
+
+    /**
+     * Permit for one request, released once
+     */
+    public final class Permit {
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Release after a response, sampling its latency
+         *
+         * @param success false if the request was dropped (error or 5xx)
+         */
+        public void release(boolean success) {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release(this, true, success);
+            }
+        }
+
+        /**
+         * Release without a sample, the request was cancelled
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                AdaptiveConcurrencyLimiter.this.release(this, false, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Caps the number of concurrent calls to an endpoint, calls over the cap are rejected instead of queued.
+ */
+public class Bulkhead {
+    private final Semaphore permits;
+
+    public Bulkhead(String name, int maxConcurrentCalls) {
+        this.permits = new Semaphore(maxConcurrentCalls);
+        Metrics.gauge("uci.bulkhead.available", Tags.of("name", name), permits, Semaphore::availablePermits);
+    }
+
+    public boolean tryAcquire() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+}
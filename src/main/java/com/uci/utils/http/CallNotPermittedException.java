@@ -0,0 +1,12 @@
+package com.uci.utils.http;
+
+/**
+ * Thrown instead of making a call, when the endpoint's circuit breaker is open or its bulkhead is full.
+ */
+public class CallNotPermittedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public CallNotPermittedException(String endpoint, String reason) {
+        super("Call to " + endpoint + " not permitted: " + reason);
+    }
+}
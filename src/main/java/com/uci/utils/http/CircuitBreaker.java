@@ -0,0 +1,144 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Count based circuit breaker. Closed, it records the outcome of the last windowSize calls and opens once at least
+ * minimumCalls were recorded and the failure rate reaches the threshold. Open, it rejects calls for openDuration,
+ * then lets halfOpenCalls trial calls through: all succeeding closes it, any failing opens it again.
+ *
+ * Calls hold the generation they were permitted in, outcomes of calls permitted before the last state change
+ * are ignored.
+ */
+@Slf4j
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final boolean[] outcomes;
+    private final AtomicInteger stateGauge = new AtomicInteger();
+
+    private State state = State.CLOSED;
+    private long generation;
+    private long openedAt;
+    private int index;
+    private int recorded;
+    private int failures;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    /**
+     * @param name
+     * @param failureRateThreshold failure percentage opening the breaker
+     * @param windowSize number of last calls the failure rate is computed on
+     * @param minimumCalls calls needed in the window before the failure rate is checked
+     * @param openDuration time calls are rejected before trial calls are let through
+     * @param halfOpenCalls number of trial calls
+     */
+    public CircuitBreaker(String name, int failureRateThreshold, int windowSize, int minimumCalls, Duration openDuration, int halfOpenCalls) {
+        this.name = name;
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, outcomes.length));
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        Metrics.gauge("uci.circuitbreaker.state", Tags.of("name", name), stateGauge);
+    }
+
+    /**
+     * Ask permission for a call
+     *
+     * @return permit to pass to onResult, -1 if the call is rejected
+     */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openDurationNanos) {
+                return -1;
+            }
+            transition(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return -1;
+            }
+            halfOpenPermitted++;
+        }
+        return generation;
+    }
+
+    /**
+     * Record the outcome of a permitted call
+     *
+     * @param permit
+     * @param success
+     */
+    public synchronized void onResult(long permit, boolean success) {
+        if (permit != generation) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                transition(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transition(State.CLOSED);
+            }
+            return;
+        }
+        if (state != State.CLOSED) {
+            return;
+        }
+        if (recorded == outcomes.length) {
+            failures -= outcomes[index] ? 0 : 1;
+        } else {
+            recorded++;
+        }
+        outcomes[index] = success;
+        failures += success ? 0 : 1;
+        index = (index + 1) % outcomes.length;
+        if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Release the permit of a call cancelled before completing, without recording an outcome
+     *
+     * @param permit
+     */
+    public synchronized void onCancel(long permit) {
+        if (permit == generation && state == State.HALF_OPEN) {
+            halfOpenPermitted--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State to) {
+        log.info("CircuitBreaker:" + name + "::" + state + " -> " + to);
+        Metrics.counter("uci.circuitbreaker.transitions", "name", name, "from", state.name(), "to", to.name()).increment();
+        state = to;
+        stateGauge.set(to.ordinal());
+        generation++;
+        index = 0;
+        recorded = 0;
+        failures = 0;
+        halfOpenPermitted = 0;
+        halfOpenSucceeded = 0;
+        if (to == State.OPEN) {
+            openedAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket rate limit on an upstream, shared by all instances through one Redis bucket. Instances take tokens
+ * from Redis in batches (a Lua script refills & takes atomically, on the Redis clock) and spend them locally, so
+ * most calls do not touch Redis. Unspent tokens are dropped after a short lease so an idle instance does not hold
+ * on to the cluster's quota. A call waits for a token up to a deadline, then fails with CallNotPermittedException.
+ * While Redis is unreachable each instance falls back to its own bucket at the configured fallback rate. Usable as
+ * a WebClient filter, as an OkHttp interceptor & directly around blocking calls.
+ */
+@Slf4j
+public class ClusterRateLimiter implements ExchangeFilterFunction {
+    /* Returns the tokens granted, or minus the millis until the next token if none are left */
+    private static final RedisScript<Long> TAKE_SCRIPT = new DefaultRedisScript<>(
+            "redis.replicate_commands()\n"
+                    + "local rate = tonumber(ARGV[1])\n"
+                    + "local burst = tonumber(ARGV[2])\n"
+                    + "local requested = tonumber(ARGV[3])\n"
+                    + "local time = redis.call('TIME')\n"
+                    + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n"
+                    + "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')\n"
+                    + "local tokens = tonumber(bucket[1]) or burst\n"
+                    + "local ts = tonumber(bucket[2]) or now\n"
+                    + "tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000)\n"
+                    + "local granted = math.min(requested, math.floor(tokens))\n"
+                    + "tokens = tokens - granted\n"
+                    + "redis.call('HMSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))\n"
+                    + "redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + 1000)\n"
+                    + "if granted > 0 then return granted end\n"
+                    + "return -math.max(1, math.ceil((1 - tokens) * 1000 / rate))\n",
+            Long.class);
+
+    private final String name;
+    private final String key;
+    private final TokenStore tokenStore;
+    private final double ratePerSecond;
+    private final long burst;
+    private final int prefetch;
+    private final long leaseNanos;
+    private final Duration maxWait;
+    private final Duration redisRetryInterval;
+    private final LocalBucket fallback;
+    private final AtomicReference<Mono<Long>> inFlightTake = new AtomicReference<>();
+    private final Timer waitTimer;
+    private int localTokens;
+    private long localTokensExpireAt;
+    private volatile long redisRetryAt;
+
+    /**
+     * @param name                upstream name, also the bucket key
+     * @param redisTemplate
+     * @param ratePerSecond       tokens per second for the cluster
+     * @param burst               bucket capacity
+     * @param prefetch            tokens taken from Redis per call, 1 to take one per call
+     * @param maxWait             max time a call waits for a token
+     * @param fallbackRatePerSecond tokens per second for this instance while Redis is unreachable
+     */
+    public ClusterRateLimiter(String name, RedisTemplate<String, Object> redisTemplate, double ratePerSecond, long burst,
+                              int prefetch, Duration maxWait, double fallbackRatePerSecond) {
+        this(name, new RedisTokenStore(redisTemplate), ratePerSecond, burst, prefetch, maxWait, fallbackRatePerSecond,
+                Duration.ofSeconds(5));
+    }
+
+    ClusterRateLimiter(String name, TokenStore tokenStore, double ratePerSecond, long burst, int prefetch,
+                       Duration maxWait, double fallbackRatePerSecond, Duration redisRetryInterval) {
+        this.name = name;
+        this.key = "RateLimit:" + name;
+        this.tokenStore = tokenStore;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.prefetch = (int) Math.max(1, Math.min(prefetch, this.burst));
+        /* Long enough to spend a batch at this instance's share of the rate, at most a second */
+        this.leaseNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(100, Math.min(1000, (long) (this.prefetch * 1000 / ratePerSecond))));
+        this.maxWait = maxWait;
+        this.redisRetryInterval = redisRetryInterval;
+        this.fallback = new LocalBucket(fallbackRatePerSecond, Math.max(1, (long) fallbackRatePerSecond));
+        Tags tags = Tags.of("name", name);
+        this.waitTimer = Timer.builder("uci.ratelimit.wait").tags(tags).register(Metrics.globalRegistry);
+        Metrics.gauge("uci.ratelimit.local.tokens", tags, this, ClusterRateLimiter::getLocalTokens);
+    }
+
+    /**
+     * Wait for a token
+     *
+     * @return completes once a token is taken, errors with CallNotPermittedException if none is free by the deadline
+     */
+    public Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            if (takeLocal()) {
+                return Mono.empty();
+            }
+            long start = System.nanoTime();
+            return acquire(start + maxWait.toNanos())
+                    .doOnSuccess(ignored -> waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    /**
+     * Wait for a token on the calling thread, for blocking clients only. Throws IllegalStateException on a Reactor
+     * non-blocking thread, reactive code should use acquire() or move the call to Schedulers.boundedElastic().
+     *
+     * @throws CallNotPermittedException if no token is free by the deadline
+     */
+    public void acquireBlocking() {
+        /* block() checks the thread only after subscribing, which would spend a token */
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Blocking call in non-blocking thread " + Thread.currentThread().getName());
+        }
+        acquire().block();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return acquire().then(Mono.defer(() -> next.exchange(request)));
+    }
+
+    /**
+     * OkHttp interceptor for blocking calls, waits on the calling thread until a token is free. Calls through it
+     * must run on blocking threads, see acquireBlocking()
+     *
+     * @return
+     */
+    public Interceptor interceptor() {
+        return chain -> {
+            acquireBlocking();
+            return chain.proceed(chain.request());
+        };
+    }
+
+    public synchronized int getLocalTokens() {
+        return System.nanoTime() < localTokensExpireAt ? localTokens : 0;
+    }
+
+    private Mono<Void> acquire(long deadlineNanos) {
+        return Mono.defer(() -> {
+            if (takeLocal()) {
+                return Mono.empty();
+            }
+            return take().flatMap(waitMillis -> {
+                /* Tokens were added, even if the take outlasted the deadline */
+                if (waitMillis == 0 && takeLocal()) {
+                    return Mono.<Void>empty();
+                }
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (waitMillis == 0 && remainingNanos > 0) {
+                    return acquire(deadlineNanos);
+                }
+                if (TimeUnit.MILLISECONDS.toNanos(waitMillis) > remainingNanos) {
+                    return Mono.error(reject());
+                }
+                return Mono.delay(Duration.ofMillis(waitMillis)).then(acquire(deadlineNanos));
+            });
+        });
+    }
+
+    private synchronized boolean takeLocal() {
+        if (localTokens > 0 && System.nanoTime() < localTokensExpireAt) {
+            localTokens--;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void addLocal(long tokens) {
+        long now = System.nanoTime();
+        localTokens = (now < localTokensExpireAt ? localTokens : 0) + (int) tokens;
+        localTokensExpireAt = now + leaseNanos;
+    }
+
+    /**
+     * Take a batch of tokens into the local pool, one take at a time shared by all waiting calls
+     *
+     * @return 0 if tokens were added, else millis until the next token
+     */
+    private Mono<Long> take() {
+        Mono<Long> current = inFlightTake.get();
+        if (current != null) {
+            return current;
+        }
+        Mono<Long> flight = Mono.fromCallable(this::takeBatch)
+                .subscribeOn(Schedulers.boundedElastic())
+                /* Cleared before the result reaches the waiters, so a waiter that finds no token starts a new take */
+                .doOnTerminate(() -> inFlightTake.set(null))
+                .cache();
+        return inFlightTake.compareAndSet(null, flight) ? flight : take();
+    }
+
+    private long takeBatch() {
+        if (System.nanoTime() >= redisRetryAt) {
+            try {
+                long result = tokenStore.take(key, ratePerSecond, burst, prefetch);
+                Metrics.counter("uci.ratelimit.redis.calls", "name", name, "result", result > 0 ? "granted" : "empty").increment();
+                if (result > 0) {
+                    addLocal(result);
+                    return 0;
+                }
+                return -result;
+            } catch (Exception e) {
+                log.error("ClusterRateLimiter:takeBatch::" + name + " falling back to the local rate, Exception: " + e.getMessage());
+                Metrics.counter("uci.ratelimit.redis.calls", "name", name, "result", "error").increment();
+                redisRetryAt = System.nanoTime() + redisRetryInterval.toNanos();
+            }
+        }
+        long waitMillis = fallback.take();
+        if (waitMillis == 0) {
+            addLocal(1);
+        }
+        return waitMillis;
+    }
+
+    private CallNotPermittedException reject() {
+        Metrics.counter("uci.ratelimit.rejected", "name", name).increment();
+        return new CallNotPermittedException(name, "rate limited");
+    }
+
+    /**
+     * Shared bucket of tokens
+     */
+    interface TokenStore {
+        /**
+         * @return tokens granted, up to requested, or minus the millis until the next token if none are left
+         */
+        long take(String key, double ratePerSecond, long burst, int requested);
+    }
+
+    private static class RedisTokenStore implements TokenStore {
+        private final RedisTemplate<String, Object> redisTemplate;
+
+        private RedisTokenStore(RedisTemplate<String, Object> redisTemplate) {
+            this.redisTemplate = redisTemplate;
+        }
+
+        @Override
+        public long take(String key, double ratePerSecond, long burst, int requested) {
+            Long result = redisTemplate.execute(TAKE_SCRIPT, new StringRedisSerializer(), new GenericToStringSerializer<>(Long.class),
+                    Collections.singletonList(key), String.valueOf(ratePerSecond), String.valueOf(burst), String.valueOf(requested));
+            if (result == null) {
+                throw new IllegalStateException("No result from rate limit script");
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Token bucket of this instance, used while Redis is unreachable
+     */
+    private static class LocalBucket {
+        private final double ratePerSecond;
+        private final long burst;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private LocalBucket(double ratePerSecond, long burst) {
+            this.ratePerSecond = ratePerSecond;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        /**
+         * @return 0 if a token was taken, else millis until the next token
+         */
+        private synchronized long take() {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / TimeUnit.SECONDS.toNanos(1));
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens--;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) * 1000 / ratePerSecond));
+        }
+    }
+}
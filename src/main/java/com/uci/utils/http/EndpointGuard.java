@@ -0,0 +1,101 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Circuit breaker, bulkhead & timeout around the calls to one endpoint, each optional. Rejected calls fail fast
+ * with CallNotPermittedException. Errors & timeouts count as failures for the breaker, 4xx responses do not as
+ * they are answers of a healthy endpoint.
+ */
+public class EndpointGuard {
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Duration timeout;
+
+    /**
+     * @param name
+     * @param circuitBreaker null for no circuit breaker
+     * @param bulkhead null for no bulkhead
+     * @param timeout null for no timeout
+     */
+    public EndpointGuard(String name, CircuitBreaker circuitBreaker, Bulkhead bulkhead, Duration timeout) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Guard the call, each subscription is one guarded call so retries are guarded again
+     *
+     * @param call
+     * @return
+     */
+    public <T> Mono<T> protect(Mono<T> call) {
+        return Mono.defer(() -> {
+            if (bulkhead != null && !bulkhead.tryAcquire()) {
+                return reject("bulkhead full");
+            }
+            long permit = circuitBreaker != null ? circuitBreaker.tryAcquire() : 0;
+            if (permit < 0) {
+                if (bulkhead != null) {
+                    bulkhead.release();
+                }
+                return reject("circuit open");
+            }
+            AtomicBoolean recorded = new AtomicBoolean(false);
+            Mono<T> guarded = timeout != null ? call.timeout(timeout) : call;
+            return guarded
+                    .doOnSuccess(value -> record(recorded, permit, true))
+                    .doOnError(throwable -> {
+                        /* Shed before reaching the endpoint (eg. by the adaptive concurrency limit), not an endpoint failure */
+                        if (throwable instanceof CallNotPermittedException) {
+                            cancel(recorded, permit);
+                        } else {
+                            record(recorded, permit, !isFailure(throwable));
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            cancel(recorded, permit);
+                        }
+                        if (bulkhead != null) {
+                            bulkhead.release();
+                        }
+                    });
+        });
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    private void record(AtomicBoolean recorded, long permit, boolean success) {
+        if (circuitBreaker != null && recorded.compareAndSet(false, true)) {
+            circuitBreaker.onResult(permit, success);
+        }
+    }
+
+    private void cancel(AtomicBoolean recorded, long permit) {
+        if (circuitBreaker != null && recorded.compareAndSet(false, true)) {
+            circuitBreaker.onCancel(permit);
+        }
+    }
+
+    private boolean isFailure(Throwable throwable) {
+        return !(throwable instanceof WebClientResponseException
+                && ((WebClientResponseException) throwable).getStatusCode().is4xxClientError());
+    }
+
+    private <T> Mono<T> reject(String reason) {
+        Metrics.counter("uci.circuitbreaker.rejected", "name", name, "reason", reason.replace(' ', '_')).increment();
+        return Mono.error(new CallNotPermittedException(name, reason));
+    }
+}
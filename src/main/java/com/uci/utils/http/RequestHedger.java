@@ -0,0 +1,144 @@
+package com.uci.utils.http;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests: if a request has not answered within the hedge delay, an identical second request is made and
+ * the first value wins, the other request is cancelled. The hedge delay is the configured percentile of recent
+ * request latencies (the default delay until enough were recorded), so only the slowest requests are hedged.
+ * Hedging is capped by a budget, each request adds maxHedgeRate to it & each hedge takes 1, bounding the extra
+ * load on the upstream to maxHedgeRate of the requests.
+ */
+public class RequestHedger {
+    private static final int SAMPLES = 256;
+    private static final int MIN_SAMPLES = 20;
+    private static final int RECOMPUTE_EVERY = 32;
+    private static final double MAX_BUDGET = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double maxHedgeRate;
+    private final long[] latencies = new long[SAMPLES];
+    private final Counter issued;
+    private final Counter won;
+    private int samples;
+    private int sinceRecompute;
+    private double budget;
+    private volatile long delayNanos;
+
+    /**
+     * @param name
+     * @param percentile latency percentile the hedge delay is set to, eg. 0.95
+     * @param minDelay lower bound of the hedge delay
+     * @param defaultDelay hedge delay until enough latencies were recorded
+     * @param maxHedgeRate max fraction of requests hedged
+     */
+    public RequestHedger(String name, double percentile, Duration minDelay, Duration defaultDelay, double maxHedgeRate) {
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.maxHedgeRate = maxHedgeRate;
+        this.delayNanos = Math.max(minDelayNanos, defaultDelay.toNanos());
+        Tags tags = Tags.of("name", name);
+        this.issued = Metrics.counter("uci.webclient.hedge.issued", tags);
+        this.won = Metrics.counter("uci.webclient.hedge.won", tags);
+        Metrics.gauge("uci.webclient.hedge.delay.millis", tags, this, hedger -> TimeUnit.NANOSECONDS.toMillis(hedger.delayNanos));
+    }
+
+    /**
+     * Make the request, hedged if it is slower than the hedge delay
+     *
+     * @param request supplier of the request, called once per attempt
+     * @return first value of the attempts, or the error of the last attempt failing
+     */
+    public <T> Mono<T> hedge(Supplier<Mono<T>> request) {
+        return Mono.create(sink -> {
+            AtomicBoolean done = new AtomicBoolean(false);
+            AtomicInteger running = new AtomicInteger(1);
+            Disposable.Composite attempts = Disposables.composite();
+            sink.onDispose(attempts);
+            addBudget();
+
+            long start = System.nanoTime();
+            attempts.add(request.get()
+                    .doFinally(signal -> record(System.nanoTime() - start))
+                    .subscribe(value -> {
+                        if (done.compareAndSet(false, true)) {
+                            sink.success(value);
+                        }
+                    }, error -> onAttemptEnd(done, running, sink, error), () -> onAttemptEnd(done, running, sink, null)));
+
+            attempts.add(Mono.delay(Duration.ofNanos(delayNanos)).subscribe(tick -> {
+                if (done.get() || !takeBudget()) {
+                    return;
+                }
+                running.incrementAndGet();
+                issued.increment();
+                attempts.add(request.get().subscribe(value -> {
+                    if (done.compareAndSet(false, true)) {
+                        won.increment();
+                        sink.success(value);
+                    }
+                }, error -> onAttemptEnd(done, running, sink, error), () -> onAttemptEnd(done, running, sink, null)));
+            }));
+        });
+    }
+
+    public Duration getDelay() {
+        return Duration.ofNanos(delayNanos);
+    }
+
+    /**
+     * An attempt ended without winning, the request ends with it if no other attempt is still running
+     */
+    private <T> void onAttemptEnd(AtomicBoolean done, AtomicInteger running, MonoSink<T> sink, Throwable error) {
+        if (running.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+            if (error != null) {
+                sink.error(error);
+            } else {
+                sink.success();
+            }
+        }
+    }
+
+    /**
+     * Record a primary request latency, cancelled requests record the time until cancellation
+     *
+     * @param latencyNanos
+     */
+    private synchronized void record(long latencyNanos) {
+        latencies[samples % SAMPLES] = latencyNanos;
+        samples++;
+        if (samples == MIN_SAMPLES || (samples > MIN_SAMPLES && ++sinceRecompute >= RECOMPUTE_EVERY)) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, Math.min(samples, SAMPLES));
+            Arrays.sort(sorted);
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+            delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+        }
+    }
+
+    private synchronized void addBudget() {
+        budget = Math.min(MAX_BUDGET, budget + maxHedgeRate);
+    }
+
+    private synchronized boolean takeBudget() {
+        if (budget < 1) {
+            return false;
+        }
+        budget--;
+        return true;
+    }
+}
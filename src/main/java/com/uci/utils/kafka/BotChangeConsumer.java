@@ -0,0 +1,106 @@
+package com.uci.utils.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.BotService;
+import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.bot.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.kafka.receiver.KafkaReceiver;
+import reactor.util.retry.Retry;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Listens to bot/adapter change events and updates the BotService cache, so edits show up without waiting for the cache TTL.
+ * Every instance uses its own consumer group (named after its HOSTNAME), as every instance holds its own cache.
+ * Only events sent while the instance runs matter, so it starts at the latest offset & never commits offsets:
+ * the group holds no state once the instance stops.
+ *
+ * Event value: {"type": "bot" | "adapter", "action": "created" | "updated" | "deleted", "id": "...", "name": "...", "data": {...}}
+ * If data (the full bot/adapter node) is given the entries are replaced with it, otherwise they are removed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "caffeine.cache.change.consumer.enabled", havingValue = "true")
+public class BotChangeConsumer {
+    @Autowired
+    private KafkaConfig kafkaConfig;
+
+    @Autowired
+    private BotService botService;
+
+    @Value("${caffeine.cache.change.topic:uci-bot-changes}")
+    private String topic;
+
+    @Value("${caffeine.cache.change.group.prefix:uci-utils-cache}")
+    private String groupPrefix;
+
+    private Disposable subscription;
+
+    @PostConstruct
+    public void start() {
+        String groupId = groupPrefix + "-" + Optional.ofNullable(System.getenv("HOSTNAME")).orElse(UUID.randomUUID().toString());
+        log.info("BotChangeConsumer:start::listening to topic: " + topic + ", group: " + groupId);
+        subscription = KafkaReceiver.create(kafkaConfig.receiverOptions(groupId, topic))
+                .receive()
+                .doOnNext(record -> handle(record.value()))
+                .doOnError(throwable -> log.error("BotChangeConsumer:start::Exception: " + throwable.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofMinutes(1)))
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Apply a change event to the cache, invalid events are logged & skipped
+     *
+     * @param event
+     */
+    public void handle(String event) {
+        try {
+            JsonNode root = JsonUtil.getMapper().readTree(event);
+            String type = root.path("type").asText();
+            String action = root.path("action").asText();
+            JsonNode data = root.path("data");
+            boolean upsert = !action.equalsIgnoreCase("deleted") && data.isObject() && !data.isEmpty();
+            String id = BotUtil.getBotNodeData(root, "id");
+            if (id == null && upsert) {
+                id = BotUtil.getBotNodeData(data, "id");
+            }
+            log.info("BotChangeConsumer:handle::type: " + type + ", action: " + action + ", id: " + id);
+
+            if (type.equalsIgnoreCase("bot")) {
+                /* Upsert removes the bot's old entries too, including those of an old name */
+                if (upsert) {
+                    botService.upsertBot(data);
+                } else {
+                    botService.invalidateBot(id, BotUtil.getBotNodeData(root, "name"));
+                }
+            } else if (type.equalsIgnoreCase("adapter") && id != null) {
+                if (upsert) {
+                    botService.upsertAdapter(data);
+                } else {
+                    botService.invalidateAdapter(id);
+                }
+            } else {
+                log.error("BotChangeConsumer:handle::Unknown change event: " + event);
+            }
+        } catch (Exception e) {
+            log.error("BotChangeConsumer:handle::Exception: " + e.getMessage() + ", event: " + event);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.uci.utils.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Compact immutable view of an adapter, built once when the adapter is fetched.
+ */
+@Value
+@Builder
+public class AdapterConfig {
+    String id;
+    String name;
+    String channel;
+    String provider;
+    /* Vault key of the adapter credentials, config.credentials.variable */
+    String credentialsVariable;
+    /* Textual adapter config values, eg. phone, 2WAY, HSM_ID */
+    Map<String, String> config;
+}
@@ -0,0 +1,17 @@
+package com.uci.utils.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Adapter resolved together with its vault credentials.
+ */
+@Value
+@Builder
+public class AdapterWithCredentials {
+    JsonNode adapter;
+    AdapterConfig config;
+    /* Vault credentials of config.credentials.variable, null if the adapter has none or they are not found */
+    JsonNode credentials;
+}
@@ -0,0 +1,69 @@
+package com.uci.utils.model;
+
+import com.uci.utils.bot.util.BotUtil;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Compact immutable view of a bot, built once when the bot is fetched.
+ * Validity dates are pre-parsed so checking a bot on the message path needs no json walk or date parsing.
+ */
+@Value
+@Builder
+public class BotConfig {
+    String id;
+    String name;
+    String startingMessage;
+    String status;
+    String ownerID;
+    String ownerOrgID;
+    String adapterId;
+    String formID;
+    List<String> tags;
+    /* Bot start date, null if the bot has no (parsable) start date */
+    Instant validFrom;
+    /* End of the bot end date, null if the bot has no end date */
+    Instant validUntil;
+    /* True if the end date is set but could not be parsed */
+    boolean invalidEndDate;
+
+    /**
+     * Check if bot is valid now
+     *
+     * @return
+     */
+    public boolean isValid() {
+        return isValidAt(BotUtil.now());
+    }
+
+    /**
+     * Check if bot is valid at the given instant: live status, started & not ended
+     *
+     * @param instant
+     * @return
+     */
+    public boolean isValidAt(Instant instant) {
+        return status != null && !"disabled".equalsIgnoreCase(status)
+                && validFrom != null && !instant.isBefore(validFrom)
+                && !invalidEndDate && (validUntil == null || instant.isBefore(validUntil));
+    }
+
+    /**
+     * Next instant the bot's validity changes after the given instant: its start if not started, else its end
+     *
+     * @param instant
+     * @return next boundary, null if the validity never changes after instant
+     */
+    public Instant nextValidityBoundary(Instant instant) {
+        if (validFrom != null && instant.isBefore(validFrom)) {
+            return validFrom;
+        }
+        if (validUntil != null && instant.isBefore(validUntil)) {
+            return validUntil;
+        }
+        return null;
+    }
+}
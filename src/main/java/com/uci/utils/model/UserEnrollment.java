@@ -0,0 +1,35 @@
+package com.uci.utils.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Result of adding a user to a bot in a bulk enrollment.
+ */
+@Value
+@Builder
+public class UserEnrollment {
+    String userId;
+    String botName;
+    /* null if the bot was not found */
+    String botId;
+    Status status;
+    /* User id returned by the campaign service, null unless added now */
+    String enrolledUserId;
+
+    public boolean isEnrolled() {
+        return status == Status.ADDED || status == Status.EXISTS || status == Status.ALREADY_ENROLLED;
+    }
+
+    public enum Status {
+        /* Added by this call */
+        ADDED,
+        /* Campaign service reported the user was already added */
+        EXISTS,
+        /* Skipped, the user was added to the bot recently by this instance */
+        ALREADY_ENROLLED,
+        /* No valid bot with this name */
+        BOT_NOT_FOUND,
+        FAILED
+    }
+}
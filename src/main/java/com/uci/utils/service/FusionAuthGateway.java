@@ -0,0 +1,278 @@
+package com.uci.utils.service;
+
+import com.inversoft.error.Errors;
+import com.inversoft.rest.ClientResponse;
+import com.uci.utils.http.CallNotPermittedException;
+import com.uci.utils.http.ClusterRateLimiter;
+import io.fusionauth.client.FusionAuthClient;
+import io.fusionauth.domain.Application;
+import io.fusionauth.domain.User;
+import io.fusionauth.domain.api.ApplicationResponse;
+import io.fusionauth.domain.api.UserRequest;
+import io.fusionauth.domain.api.UserResponse;
+import io.fusionauth.domain.api.user.RegistrationRequest;
+import io.fusionauth.domain.api.user.RegistrationResponse;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Non blocking facade over the blocking FusionAuthClient. Calls run on a dedicated bounded scheduler, so they never
+ * block event loop threads, with a cap on queued calls (over it calls fail fast with RejectedExecutionException)
+ * and a timeout. Calls wait for a token of the cluster wide FusionAuth rate limit if enabled. Publishes queue depth,
+ * active calls & call latency by operation and result.
+ */
+@Service
+@Slf4j
+public class FusionAuthGateway {
+    @Autowired
+    private FusionAuthClient fusionAuthClient;
+
+    /* Cluster wide rate limit of FusionAuth, null if disabled */
+    @Autowired(required = false)
+    @Qualifier("fusionAuthRateLimiter")
+    private ClusterRateLimiter fusionAuthRateLimiter;
+
+    @Value("${fusionauth.gateway.threads:16}")
+    private Integer threads;
+
+    @Value("${fusionauth.gateway.queue.size:1000}")
+    private Integer queueSize;
+
+    @Value("${fusionauth.gateway.timeout.millis:5000}")
+    private Long timeoutMillis;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private Scheduler scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Schedulers.newBoundedElastic(threads, queueSize, "fusionauth-gateway");
+        Metrics.gauge("uci.fusionauth.queue.depth", queued);
+        Metrics.gauge("uci.fusionauth.active", active);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.dispose();
+        }
+    }
+
+    /**
+     * Run a FusionAuthClient call on the gateway scheduler. Errors with the client exception if the call did not
+     * get a response, unsuccessful responses are emitted as they are.
+     *
+     * @param operation name for logs & metrics
+     * @param call
+     * @return
+     */
+    public <S, E> Mono<ClientResponse<S, E>> execute(String operation, Function<FusionAuthClient, ClientResponse<S, E>> call) {
+        return acquire(operation).then(Mono.defer(() -> {
+            queued.incrementAndGet();
+            AtomicBoolean dequeued = new AtomicBoolean(false);
+            long start = System.nanoTime();
+            return Mono.fromCallable(() -> {
+                        if (dequeued.compareAndSet(false, true)) {
+                            queued.decrementAndGet();
+                        }
+                        active.incrementAndGet();
+                        try {
+                            return call.apply(fusionAuthClient);
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                    })
+                    .subscribeOn(scheduler)
+                    .flatMap(response -> response.exception != null ? Mono.error(response.exception) : Mono.just(response))
+                    .timeout(Duration.ofMillis(timeoutMillis))
+                    .doOnSuccess(response -> record(operation, "success", start))
+                    .doOnError(throwable -> {
+                        record(operation, resultOf(throwable), start);
+                        log.error("FusionAuthGateway:" + operation + "::Exception: " + throwable.getMessage());
+                    })
+                    .doFinally(signal -> {
+                        if (dequeued.compareAndSet(false, true)) {
+                            queued.decrementAndGet();
+                        }
+                    });
+        }));
+    }
+
+    /**
+     * Wait for a token of the FusionAuth rate limit, completes right away if it is disabled
+     *
+     * @param operation
+     * @return
+     */
+    private Mono<Void> acquire(String operation) {
+        if (fusionAuthRateLimiter == null) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return fusionAuthRateLimiter.acquire()
+                    .doOnError(throwable -> {
+                        record(operation, resultOf(throwable), start);
+                        log.error("FusionAuthGateway:" + operation + "::Exception: " + throwable.getMessage());
+                    });
+        });
+    }
+
+    /**
+     * Run a FusionAuthClient call on the gateway scheduler & wait for the response, for blocking callers. Throws
+     * IllegalStateException on a Reactor non-blocking thread, reactive code should use execute() instead. Errors,
+     * rate limit rejections & timeouts included, are returned as the response exception, as the client does.
+     *
+     * @param operation name for logs & metrics
+     * @param call
+     * @return
+     */
+    public <S, E> ClientResponse<S, E> executeBlocking(String operation, Function<FusionAuthClient, ClientResponse<S, E>> call) {
+        /* block() checks the thread only after subscribing, which would still make the call */
+        if (Schedulers.isInNonBlockingThread()) {
+            throw new IllegalStateException("Blocking call in non-blocking thread " + Thread.currentThread().getName());
+        }
+        return execute(operation, call)
+                .onErrorResume(throwable -> Mono.just(exceptionResponse(throwable)))
+                .block();
+    }
+
+    /**
+     * Retrieve application by id
+     *
+     * @param applicationID
+     * @return application, empty if not found
+     */
+    public Mono<Application> retrieveApplication(UUID applicationID) {
+        return execute("retrieveApplication", client -> client.retrieveApplication(applicationID))
+                .flatMap(response -> Mono.justOrEmpty(successOrNull(response) != null ? response.successResponse.application : null));
+    }
+
+    /**
+     * Retrieve all applications
+     *
+     * @return applications, empty list if the call was unsuccessful
+     */
+    public Mono<List<Application>> retrieveApplications() {
+        return execute("retrieveApplications", FusionAuthClient::retrieveApplications)
+                .map(response -> {
+                    ApplicationResponse applicationResponse = successOrNull(response);
+                    return applicationResponse != null && applicationResponse.applications != null
+                            ? applicationResponse.applications : Collections.<Application>emptyList();
+                });
+    }
+
+    /**
+     * Retrieve user by username
+     *
+     * @param username
+     * @return user, empty if not found
+     */
+    public Mono<User> retrieveUserByUsername(String username) {
+        return execute("retrieveUserByUsername", client -> client.retrieveUserByUsername(username))
+                .flatMap(response -> Mono.justOrEmpty(userOf(response)));
+    }
+
+    /**
+     * Retrieve user by email
+     *
+     * @param email
+     * @return user, empty if not found
+     */
+    public Mono<User> retrieveUserByEmail(String email) {
+        return execute("retrieveUserByEmail", client -> client.retrieveUserByEmail(email))
+                .flatMap(response -> Mono.justOrEmpty(userOf(response)));
+    }
+
+    /**
+     * Update user
+     *
+     * @param userID
+     * @param request
+     * @return response, check wasSuccessful & errorResponse for validation errors
+     */
+    public Mono<ClientResponse<UserResponse, Errors>> updateUser(UUID userID, UserRequest request) {
+        return execute("updateUser", client -> client.updateUser(userID, request));
+    }
+
+    /**
+     * Register user to an application, creating the user if userID is null
+     *
+     * @param userID
+     * @param request
+     * @return response, check wasSuccessful & errorResponse for validation errors
+     */
+    public Mono<ClientResponse<RegistrationResponse, Errors>> register(UUID userID, RegistrationRequest request) {
+        return execute("register", client -> client.register(userID, request));
+    }
+
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    private User userOf(ClientResponse<UserResponse, Errors> response) {
+        UserResponse userResponse = successOrNull(response);
+        if (userResponse == null && response.errorResponse != null) {
+            log.error("FusionAuthGateway:userOf::Errors: " + response.errorResponse);
+        }
+        return userResponse != null ? userResponse.user : null;
+    }
+
+    /**
+     * Response of a call that failed without a response, with status -1 as the FusionAuthClient sets it
+     *
+     * @param throwable
+     * @return
+     */
+    public static <S, E> ClientResponse<S, E> exceptionResponse(Throwable throwable) {
+        ClientResponse<S, E> response = new ClientResponse<>();
+        response.status = -1;
+        response.exception = throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+        return response;
+    }
+
+    private <S> S successOrNull(ClientResponse<S, ?> response) {
+        return response.wasSuccessful() ? response.successResponse : null;
+    }
+
+    private String resultOf(Throwable throwable) {
+        if (throwable instanceof TimeoutException) {
+            return "timeout";
+        } else if (throwable instanceof RejectedExecutionException) {
+            return "rejected";
+        } else if (throwable instanceof CallNotPermittedException) {
+            return "rate_limited";
+        }
+        return "error";
+    }
+
+    private void record(String operation, String result, long start) {
+        Timer.builder("uci.fusionauth.calls")
+                .tag("operation", operation)
+                .tag("result", result)
+                .register(Metrics.globalRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
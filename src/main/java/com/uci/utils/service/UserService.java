@@ -8,6 +8,8 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.inversoft.error.Errors;
 import com.inversoft.rest.ClientResponse;
 import com.uci.utils.BotService;
+import com.uci.utils.http.AdaptiveConcurrencyLimiter;
+import com.uci.utils.http.ClusterRateLimiter;
 import com.uci.utils.model.FAUser;
 import com.uci.utils.model.FAUserSegment;
 
@@ -27,9 +29,12 @@ import org.jetbrains.annotations.Nullable;
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.io.IOException;
 import java.util.*;
@@ -58,6 +63,18 @@ public class UserService {
 	@Autowired
 	private FusionAuthClient fusionAuthClient;
 
+	@Autowired
+	private FusionAuthGateway fusionAuthGateway;
+
+	/* Adaptive concurrency limit of the campaign service, null if disabled */
+	@Autowired(required = false)
+	private AdaptiveConcurrencyLimiter campaignConcurrencyLimiter;
+
+	/* Cluster wide rate limit of the campaign service, null if disabled */
+	@Autowired(required = false)
+	@Qualifier("campaignRateLimiter")
+	private ClusterRateLimiter campaignRateLimiter;
+
 	@Autowired
 	Cache<Object, Object> cache;
 
@@ -83,7 +100,7 @@ public class UserService {
 	 * @return
 	 */
 	public Boolean findApplicationByID(UUID applicationID) {
-		ClientResponse<ApplicationResponse, Void> response = fusionAuthClient.retrieveApplication(applicationID);
+		ClientResponse<ApplicationResponse, Void> response = fusionAuthGateway.executeBlocking("retrieveApplication", client -> client.retrieveApplication(applicationID));
 		if(response.wasSuccessful()) {
 			return true;
 		}
@@ -101,7 +118,7 @@ public class UserService {
 				.with(app -> app.id = applicationID)
 				.with(app -> app.name = applicationName);
 
-		ClientResponse<ApplicationResponse, Errors> response2 = fusionAuthClient.createApplication(applicationID, new ApplicationRequest(application, null));
+		ClientResponse<ApplicationResponse, Errors> response2 = fusionAuthGateway.executeBlocking("createApplication", client -> client.createApplication(applicationID, new ApplicationRequest(application, null)));
 		if(response2.wasSuccessful()) {
 			log.info("succes:" +response2.successResponse);
 			return true;
@@ -117,7 +134,7 @@ public class UserService {
 	 * @return
 	 */
 	public User findFAUserByUsername(String username) {
-		ClientResponse<UserResponse, Errors> response = fusionAuthClient.retrieveUserByUsername(username);
+		ClientResponse<UserResponse, Errors> response = fusionAuthGateway.executeBlocking("retrieveUserByUsername", client -> client.retrieveUserByUsername(username));
 		if (response.wasSuccessful()) {
 			return response.successResponse.user;
 		} else if (response.errorResponse != null) {
@@ -132,7 +149,7 @@ public class UserService {
 	}
 
 	public User findByEmail(String email) {
-		ClientResponse<UserResponse, Errors> response = fusionAuthClient.retrieveUserByEmail(email);
+		ClientResponse<UserResponse, Errors> response = fusionAuthGateway.executeBlocking("retrieveUserByEmail", client -> client.retrieveUserByEmail(email));
 		if (response.wasSuccessful()) {
 			return response.successResponse.user;
 		} else if (response.errorResponse != null) {
@@ -145,6 +162,24 @@ public class UserService {
 		return null;
 	}
 
+	/**
+	 * Find Fusion Auth User by Username, without blocking the caller
+	 * @param username
+	 * @return
+	 */
+	public Mono<User> findFAUserByUsernameReactive(String username) {
+		return fusionAuthGateway.retrieveUserByUsername(username);
+	}
+
+	/**
+	 * Find Fusion Auth User by Email, without blocking the caller
+	 * @param email
+	 * @return
+	 */
+	public Mono<User> findByEmailReactive(String email) {
+		return fusionAuthGateway.retrieveUserByEmail(email);
+	}
+
 	public List<User> findUsersForCampaign(String campaignName) throws Exception {
 
 		// Fixme: Important
@@ -250,8 +285,7 @@ public class UserService {
             header = meta.get("conversation-authorization");
         }
         log.info("UserService:getUsersFromFederatedServers::Calling botId: " + campaignID + " ::: Base URL : " + baseURL + " ::: isHeader Found : " + isHeader);
-        OkHttpClient client = new OkHttpClient().newBuilder().connectTimeout(90, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS).readTimeout(90, TimeUnit.SECONDS).build();
+        OkHttpClient client = campaignHttpClient();
         MediaType mediaType = MediaType.parse("application/json");
         Request request = null;
         if (isHeader) {
@@ -276,6 +310,35 @@ public class UserService {
         return null;
     }
 
+	/**
+	 * Get users from federated servers, without blocking the caller: the campaign call runs on the bounded elastic scheduler
+	 * @param campaignID
+	 * @param meta
+	 * @return users, empty if the call failed
+	 */
+	public Mono<JSONArray> getUsersFromFederatedServersReactive(String campaignID, Map<String, String> meta) {
+		return Mono.fromCallable(() -> getUsersFromFederatedServers(campaignID, meta)).subscribeOn(Schedulers.boundedElastic());
+	}
+
+	/**
+	 * OkHttp client for campaign service calls, under the campaign rate & concurrency limits if enabled. Its calls
+	 * must run on blocking threads, the limiter interceptors throw IllegalStateException on Reactor non-blocking ones.
+	 * @return
+	 */
+	private OkHttpClient campaignHttpClient() {
+		OkHttpClient.Builder builder = new OkHttpClient().newBuilder()
+				.connectTimeout(90, TimeUnit.SECONDS)
+				.writeTimeout(90, TimeUnit.SECONDS)
+				.readTimeout(90, TimeUnit.SECONDS);
+		if (campaignRateLimiter != null) {
+			builder.addInterceptor(campaignRateLimiter.interceptor());
+		}
+		if (campaignConcurrencyLimiter != null) {
+			builder.addInterceptor(campaignConcurrencyLimiter.interceptor());
+		}
+		return builder.build();
+	}
+
 	public ArrayList<JSONObject> getUsersMessageByTemplate(ObjectNode jsonData) {
 		log.info("UserService:getUsersMessageByTemplate::CallingTemplaterService");
 		String baseURL = baseUrlTemplate + "/process/testMany";
@@ -377,14 +440,24 @@ public class UserService {
 	}
 
 	public User update(User user) {
-		ClientResponse<UserResponse, Errors> userResponse = fusionAuthClient.updateUser(user.id,
-				new UserRequest(false, false, user));
+		ClientResponse<UserResponse, Errors> userResponse = fusionAuthGateway.executeBlocking("updateUser", client -> client.updateUser(user.id,
+				new UserRequest(false, false, user)));
 		if (userResponse.wasSuccessful()) {
 			return userResponse.successResponse.user;
 		}
 		return null;
 	}
 
+	/**
+	 * Update Fusion Auth User, without blocking the caller
+	 * @param user
+	 * @return updated user, empty if the update was unsuccessful
+	 */
+	public Mono<User> updateReactive(User user) {
+		return fusionAuthGateway.updateUser(user.id, new UserRequest(false, false, user))
+				.flatMap(userResponse -> Mono.justOrEmpty(userResponse.wasSuccessful() ? userResponse.successResponse.user : null));
+	}
+
 	public Boolean isAssociate(User applicant) {
 		try {
 			String role = (String) applicant.data.get("role");
@@ -402,11 +475,7 @@ public class UserService {
 		if (cache.getIfPresent(cacheKey) != null) {
 			return (JSONObject) cache.getIfPresent(cacheKey);
 		}
-        OkHttpClient client = new OkHttpClient().newBuilder()
-                .connectTimeout(90, TimeUnit.SECONDS)
-                .writeTimeout(90, TimeUnit.SECONDS)
-                .readTimeout(90, TimeUnit.SECONDS)
-                .build();
+        OkHttpClient client = campaignHttpClient();
 
         MediaType mediaType = MediaType.parse("application/json");
         Request request = new Request.Builder()
@@ -434,6 +503,17 @@ public class UserService {
         return null;
     }
 
+	/**
+	 * Get user by phone from federated servers, without blocking the caller: the campaign call runs on the bounded
+	 * elastic scheduler
+	 * @param campaignID
+	 * @param phone
+	 * @return user, empty if the call failed
+	 */
+	public Mono<JSONObject> getUserByPhoneFromFederatedServersReactive(String campaignID, String phone) {
+		return Mono.fromCallable(() -> getUserByPhoneFromFederatedServers(campaignID, phone)).subscribeOn(Schedulers.boundedElastic());
+	}
+
 	/**
 	 * Register Fusion Auth User, if already exists update
 	 * @param username
@@ -442,6 +522,62 @@ public class UserService {
 	 * @return
 	 */
 	public ObjectNode registerUpdateFAUser(String username, UUID applicationID, FAUserSegment segment) {
+		User user = buildFAUser(username, segment);
+		UserRegistration registration = buildFARegistration(username, applicationID);
+
+		ClientResponse<RegistrationResponse, Errors> response = null;
+		User existingUser = findFAUserByUsername(username);
+
+		if(existingUser != null) {
+			ClientResponse<UserResponse, Errors> userResponse = fusionAuthGateway.executeBlocking("updateUser", client -> client.updateUser(existingUser.id, new UserRequest(user)));
+			if(userResponse.wasSuccessful()) {
+				UserRegistration existingRegistration = existingUser.getRegistrationForApplication(applicationID);
+				if(existingRegistration == null) {
+					response = fusionAuthGateway.executeBlocking("register", client -> client.register(existingUser.id, new RegistrationRequest(null, registration)));
+				} else {
+					return registrationResponseNode(userResponse);
+				}
+			} else {
+				return registrationResponseNode(userResponse);
+			}
+		} else {
+			response = fusionAuthGateway.executeBlocking("register", client -> client.register(null, new RegistrationRequest(user, registration)));
+
+		}
+		return registrationResponseNode(response);
+	}
+
+	/**
+	 * Register Fusion Auth User, if already exists update, without blocking the caller
+	 * @param username
+	 * @param applicationID
+	 * @param segment
+	 * @return
+	 */
+	public Mono<ObjectNode> registerUpdateFAUserReactive(String username, UUID applicationID, FAUserSegment segment) {
+		User user = buildFAUser(username, segment);
+		UserRegistration registration = buildFARegistration(username, applicationID);
+
+		return fusionAuthGateway.retrieveUserByUsername(username)
+				.flatMap(existingUser -> fusionAuthGateway.updateUser(existingUser.id, new UserRequest(user))
+						.flatMap(userResponse -> {
+							if(userResponse.wasSuccessful() && existingUser.getRegistrationForApplication(applicationID) == null) {
+								return fusionAuthGateway.register(existingUser.id, new RegistrationRequest(null, registration))
+										.map(this::registrationResponseNode);
+							}
+							return Mono.just(registrationResponseNode(userResponse));
+						}))
+				.switchIfEmpty(Mono.defer(() -> fusionAuthGateway.register(null, new RegistrationRequest(user, registration))
+						.map(this::registrationResponseNode)));
+	}
+
+	/**
+	 * Build Fusion Auth user with device & users data of segment
+	 * @param username
+	 * @param segment
+	 * @return
+	 */
+	private User buildFAUser(String username, FAUserSegment segment) {
 		Map<String, Object> data = new HashMap();
 		Map<String, String> device = new HashMap();
 		device.put("type", segment.getDevice().getType());
@@ -459,46 +595,27 @@ public class UserService {
 			data.put("users", users);
 		}
 
-		User user = new User()
+		return new User()
 						.with(usr -> usr.username = username)
 						.with(usr -> usr.password = "dummyPassword")
 						.with(usr -> usr.active = true)
 						.with(usr -> usr.data = data);
-		UserRegistration registration = new UserRegistration()
+	}
+
+	private UserRegistration buildFARegistration(String username, UUID applicationID) {
+		return new UserRegistration()
 				.with(rg -> rg.applicationId = applicationID)
 				.with(rg -> rg.username = username);
+	}
 
-		ClientResponse<RegistrationResponse, Errors> response = null;
-		User existingUser = findFAUserByUsername(username);
-
+	/**
+	 * Registration result node from Fusion Auth user update/register response
+	 * @param response
+	 * @return
+	 */
+	private ObjectNode registrationResponseNode(ClientResponse<?, Errors> response) {
 		ObjectMapper mapper = new ObjectMapper();
 		ObjectNode responseNode = mapper.createObjectNode();
-
-		if(existingUser != null) {
-			ClientResponse<UserResponse, Errors> userResponse = fusionAuthClient.updateUser(existingUser.id, new UserRequest(user));
-			if(userResponse.wasSuccessful()) {
-				UserRegistration existingRegistration = existingUser.getRegistrationForApplication(applicationID);
-				if(existingRegistration == null) {
-					response = fusionAuthClient.register(existingUser.id, new RegistrationRequest(null, registration));
-				} else {
-					responseNode.put("success", "true");
-					responseNode.put("message", "User registered.");
-					return responseNode;
-				}
-			} else if(userResponse.errorResponse != null) {
-				responseNode.put("success", "false");
-				responseNode.put("errors", userResponse.errorResponse.fieldErrors.toString());
-				return responseNode;
-			} else {
-				responseNode.put("success", "false");
-				responseNode.put("errors", "No response from Fustion Auth.");
-				return responseNode;
-			}
-		} else {
-			response = fusionAuthClient.register(null, new RegistrationRequest(user, registration));
-
-		}
-
 		if(response.wasSuccessful()) {
 			responseNode.put("success", "true");
 			responseNode.put("message", "User registered.");
@@ -0,0 +1,101 @@
+package com.uci.utils;
+
+import com.uci.utils.cache.service.VaultCredentialService;
+import com.uci.utils.model.AdapterWithCredentials;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotServiceAdapterCredentialsTest extends BotServiceTestBase {
+
+    VaultCredentialService vaultCredentialService;
+    AtomicInteger adapterRequests = new AtomicInteger();
+    AtomicInteger secretRequests = new AtomicInteger();
+    /* Password of the vault secret served, null serves no secret */
+    volatile String password = "p1";
+
+    /* Campaign & vault service: adapter "a1" with its credentials in vault secret "gupshupProd" */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        String path = request.getPath();
+        String body;
+        if ("/admin/adapter/a1".equals(path)) {
+            adapterRequests.incrementAndGet();
+            body = "{\"result\":{\"id\":\"a1\",\"channel\":\"WhatsApp\",\"provider\":\"gupshup\","
+                    + "\"config\":{\"credentials\":{\"vault\":\"samagra\",\"variable\":\"gupshupProd\"}}}}";
+        } else if ("/admin/secret/gupshupProd".equals(path)) {
+            secretRequests.incrementAndGet();
+            body = password == null ? "{\"result\":{}}" : "{\"result\":{\"gupshupProd\":{\"password\":\"" + password + "\"}}}";
+        } else {
+            return new MockResponse().setResponseCode(404);
+        }
+        return json(body);
+    }
+
+    @BeforeEach
+    void init() {
+        vaultCredentialService = new VaultCredentialService();
+        ReflectionTestUtils.setField(vaultCredentialService, "webClient", webClient);
+        ReflectionTestUtils.setField(vaultCredentialService, "botServiceParams", botServiceParams);
+        ReflectionTestUtils.setField(vaultCredentialService, "vaultServiceUrl", campaignServer.url("/").toString());
+        ReflectionTestUtils.setField(vaultCredentialService, "vaultServiceToken", "token");
+        ReflectionTestUtils.setField(vaultCredentialService, "defaultLeaseSeconds", 300L);
+        ReflectionTestUtils.setField(vaultCredentialService, "refreshRatio", 0.8);
+        ReflectionTestUtils.setField(vaultCredentialService, "maxSize", 100L);
+        vaultCredentialService.init();
+        botService.setVaultCredentialService(vaultCredentialService);
+    }
+
+    @Test
+    void adapterAndCredentialsAreResolvedAndCachedTogether() {
+        AdapterWithCredentials resolved = botService.getAdapterWithCredentials("a1").block();
+        assertEquals("gupshup", resolved.getConfig().getProvider());
+        assertEquals("p1", resolved.getCredentials().path("password").asText());
+
+        assertEquals("p1", botService.getAdapterCredentials("a1").block().path("password").asText());
+        assertEquals(1, adapterRequests.get());
+        assertEquals(1, secretRequests.get());
+    }
+
+    @Test
+    void invalidatedCredentialsAreReloadedWithoutRefetchingTheAdapter() {
+        botService.getAdapterWithCredentials("a1").block();
+
+        password = "p2";
+        vaultCredentialService.invalidate("gupshupProd");
+        assertEquals("p2", botService.getAdapterWithCredentials("a1").block().getCredentials().path("password").asText());
+        assertEquals(1, adapterRequests.get());
+        assertEquals(2, secretRequests.get());
+    }
+
+    @Test
+    void missingCredentialsAreNotCached() {
+        password = null;
+        assertNull(botService.getAdapterWithCredentials("a1").block().getCredentials());
+
+        password = "p1";
+        assertEquals("p1", botService.getAdapterWithCredentials("a1").block().getCredentials().path("password").asText());
+        assertEquals(1, adapterRequests.get());
+        assertEquals(2, secretRequests.get());
+    }
+
+    @Test
+    void adaptersAreServedWithoutCredentialsIfVaultIsNotConfigured() {
+        botService.setVaultCredentialService(null);
+
+        AdapterWithCredentials resolved = botService.getAdapterWithCredentials("a1").block();
+        assertEquals("gupshup", resolved.getConfig().getProvider());
+        assertNull(resolved.getCredentials());
+        assertNull(botService.getAdapterWithCredentials("a1").block().getCredentials());
+        assertNull(botService.getVaultCredentials("gupshupProd").block());
+        botService.invalidateAdapter("a1");
+        assertEquals(1, adapterRequests.get());
+        assertEquals(0, secretRequests.get());
+    }
+}
@@ -0,0 +1,96 @@
+package com.uci.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.bot.util.JsonUtil;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotServiceBatchTest extends BotServiceTestBase {
+
+    /* Local stand-in for the campaign service multi id endpoint, returns a bot for every requested id except "unknown"
+     & fails requests for id "down" */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        if (url == null || !url.encodedPath().equals("/admin/bot/batch")) {
+            return new MockResponse().setResponseCode(404);
+        }
+        if (Arrays.asList(url.queryParameter("ids").split(",")).contains("down")) {
+            return new MockResponse().setResponseCode(503);
+        }
+        String data = Arrays.stream(url.queryParameter("ids").split(","))
+                .filter(id -> !id.equals("unknown"))
+                .map(id -> "{\"id\":\"" + id + "\",\"name\":\"bot-" + id + "\"}")
+                .collect(Collectors.joining(","));
+        return json("{\"responseCode\":\"OK\",\"result\":{\"data\":[" + data + "]}}");
+    }
+
+    @BeforeEach
+    void init() {
+        Mockito.when(botServiceParams.isBotBatchEnabled()).thenReturn(true);
+        Mockito.when(botServiceParams.getBotBatchPath()).thenReturn("admin/bot/batch");
+        Mockito.when(botServiceParams.getBotBatchMaxSize()).thenReturn(50);
+        Mockito.when(botServiceParams.getBotBatchWindowMillis()).thenReturn(50L);
+        Mockito.when(botServiceParams.getStaleNodesMaxSize()).thenReturn(100L);
+    }
+
+    @Test
+    void getBotNodesFromIdsUsesOneRequest() {
+        List<JsonNode> botNodes = botService.getBotNodesFromIds(Arrays.asList("1", "2", "unknown", "3"))
+                .collectList()
+                .block();
+
+        assertEquals(3, botNodes.size());
+        assertEquals("bot-1", botNodes.get(0).path("name").asText());
+        assertEquals("bot-3", botNodes.get(2).path("name").asText());
+        assertEquals(1, campaignServer.getRequestCount());
+
+        /* Second call is served from cache */
+        botService.getBotNodesFromIds(Arrays.asList("1", "2", "unknown", "3")).collectList().block();
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void concurrentSingleLookupsAreBatched() {
+        List<JsonNode> botNodes = Flux.range(1, 10)
+                .flatMap(i -> botService.getBotNodeFromId(String.valueOf(i)))
+                .collectList()
+                .block();
+
+        assertEquals(10, botNodes.size());
+        botNodes.forEach(botNode -> assertTrue(botNode.path("name").asText().startsWith("bot-")));
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void failedBatchServesStaleNodesWithoutCachingThem() throws Exception {
+        Mockito.when(botServiceParams.getBotBatchMaxSize()).thenReturn(2);
+        botService.putStaleNodes(Collections.singletonMap("bot-node-by-id:3",
+                JsonUtil.getMapper().readTree("{\"id\":\"3\",\"name\":\"stale-3\"}")));
+
+        List<String> names = botService.getBotNodesFromIds(Arrays.asList("1", "2", "down", "3"))
+                .map(botNode -> botNode.path("name").asText())
+                .collectList()
+                .block();
+
+        assertEquals(Arrays.asList("bot-1", "bot-2", "stale-3"), names);
+        assertEquals(2, campaignServer.getRequestCount());
+
+        /* Ids of the failed batch are neither cached nor negatively cached, so they are fetched again */
+        botService.getBotNodesFromIds(Arrays.asList("1", "2", "down", "3")).collectList().block();
+        assertEquals(3, campaignServer.getRequestCount());
+    }
+}
@@ -0,0 +1,58 @@
+package com.uci.utils;
+
+import com.uci.utils.model.BotConfig;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotServiceCrossKeyTest extends BotServiceTestBase {
+
+    static final String BOT = "{\"id\":\"d1\",\"name\":\"demo\",\"startingMessage\":\"Hi demo\",\"status\":\"enabled\","
+            + "\"startDate\":\"2022-02-01T00:00:00.000Z\",\"endDate\":null,\"logicIDs\":[\"l1\"],"
+            + "\"logic\":[{\"id\":\"l1\",\"transformers\":[{\"meta\":{\"formID\":\"demo-form\"}}],"
+            + "\"adapter\":{\"id\":\"a1\",\"channel\":\"WhatsApp\",\"provider\":\"gupshup\"}}]}";
+
+    /* Serves the demo bot by id & by name */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        String path = url == null ? "" : url.encodedPath();
+        String result;
+        if (path.equals("/admin/bot/d1")) {
+            result = BOT;
+        } else if (path.equals("/admin/bot/search") && "demo".equals(url.queryParameter("name"))) {
+            result = "{\"data\":[" + BOT + "]}";
+        } else {
+            return new MockResponse().setResponseCode(404);
+        }
+        return json("{\"responseCode\":\"OK\",\"result\":" + result + "}");
+    }
+
+    @Test
+    void botFetchedByNameServesEveryOtherLookup() {
+        assertEquals("d1", botService.getBotNodeFromName("demo").block().path("id").asText());
+
+        assertEquals("demo", botService.getBotNodeFromId("d1").block().path("name").asText());
+        assertEquals("d1", botService.getBotNodeFromStartingMessage("Hi demo").block().path("id").asText());
+        assertEquals("d1", botService.getBotIdFromBotName("demo").block());
+        assertEquals("demo", botService.getBotNameByBotID("d1").block());
+        assertEquals("demo-form", botService.getFirstFormByBotID("d1").block());
+        assertEquals("a1", botService.getBotConfigFromId("d1").block().getAdapterId());
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void botFetchedByIdSharesOneNodeAndConfigAcrossKeys() {
+        botService.getBotNodeFromId("d1").block();
+
+        assertSame(cache.getIfPresent("bot-node-by-id:d1"), cache.getIfPresent("bot-for-name:demo"));
+        assertSame(cache.getIfPresent("bot-node-by-id:d1"), cache.getIfPresent("bot-for-starting-message:Hi demo"));
+        assertTrue(cache.getIfPresent("bot-config-by-id:d1") instanceof BotConfig);
+        assertSame(cache.getIfPresent("bot-config-by-id:d1"), cache.getIfPresent("bot-config-for-name:demo"));
+        assertEquals("demo", botService.getBotConfigFromName("demo").block().getName());
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+}
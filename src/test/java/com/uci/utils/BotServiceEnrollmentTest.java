@@ -0,0 +1,97 @@
+package com.uci.utils;
+
+import com.uci.utils.model.UserEnrollment;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BotServiceEnrollmentTest extends BotServiceTestBase {
+
+    /* Local stand-in for the campaign service, knows the bot "demo" (id d1) only */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        String path = url.encodedPath();
+        if (path.equals("/admin/bot/search")) {
+            String data = "demo".equals(url.queryParameter("name"))
+                    ? "{\"id\":\"d1\",\"name\":\"demo\",\"status\":\"enabled\",\"startDate\":\"2022-02-01T00:00:00.000Z\"}" : "";
+            return json("{\"result\":{\"data\":[" + data + "]}}");
+        } else if (path.startsWith("/admin/bot/d1/addUser/")) {
+            String userId = path.substring(path.lastIndexOf('/') + 1);
+            return json("{\"result\":{\"status\":\"USER_ADDED\",\"userId\":\"" + userId + "\"}}");
+        } else if (path.equals("/admin/bot/d1/addUsers")) {
+            return json("{\"result\":[{\"status\":\"USER_ADDED\",\"userId\":\"u1\"},{\"status\":\"USER_EXISTS\",\"userId\":\"u2\"}]}");
+        }
+        return new MockResponse().setResponseCode(404);
+    }
+
+    @BeforeEach
+    void init() {
+        Mockito.when(botServiceParams.getAddUsersChunkSize()).thenReturn(2);
+        Mockito.when(botServiceParams.getAddUsersConcurrency()).thenReturn(2);
+        Mockito.when(botServiceParams.getEnrolledUsersCacheMaxSize()).thenReturn(100L);
+        Mockito.when(botServiceParams.getEnrolledUsersCacheTtlSeconds()).thenReturn(60L);
+    }
+
+    @Test
+    void usersAreAddedPerBotAndEnrolledUsersSkipped() {
+        Map<String, UserEnrollment> enrollments = enroll(Flux.just(Pair.of("u1", "demo"), Pair.of("u2", "demo"),
+                Pair.of("u3", "unknown"), Pair.of("u4", "demo")));
+
+        assertEquals(UserEnrollment.Status.ADDED, enrollments.get("u1").getStatus());
+        assertEquals("d1", enrollments.get("u4").getBotId());
+        assertEquals(UserEnrollment.Status.BOT_NOT_FOUND, enrollments.get("u3").getStatus());
+
+        /* One bot lookup per bot name & one addUser per user */
+        assertEquals(5, campaignServer.getRequestCount());
+
+        enrollments = enroll(Flux.just(Pair.of("u1", "demo"), Pair.of("u5", "demo")));
+        assertEquals(UserEnrollment.Status.ALREADY_ENROLLED, enrollments.get("u1").getStatus());
+        assertEquals(UserEnrollment.Status.ADDED, enrollments.get("u5").getStatus());
+        assertEquals(6, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void chunksUseMultiUserEndpointIfSet() {
+        Mockito.when(botServiceParams.getAddUsersPath()).thenReturn("admin/bot/{botId}/addUsers");
+
+        List<UserEnrollment> enrollments = botService.addUsers("demo", Arrays.asList("u1", "u2")).collectList().block();
+
+        assertEquals(2, enrollments.size());
+        assertEquals(UserEnrollment.Status.ADDED, enrollments.get(0).getStatus());
+        assertEquals(UserEnrollment.Status.EXISTS, enrollments.get(1).getStatus());
+        assertEquals(2, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void manyBotsAreEnrolledWithoutStalling() {
+        /* More open groups than groupBy buffers, interleaved with users of a known bot */
+        Map<String, UserEnrollment> enrollments = enroll(Flux.range(0, 300)
+                .map(i -> i % 3 == 0 ? Pair.of("u" + i, "demo") : Pair.of("u" + i, "unknown-" + i)));
+
+        assertEquals(300, enrollments.size());
+        assertEquals(UserEnrollment.Status.ADDED, enrollments.get("u0").getStatus());
+        assertEquals(UserEnrollment.Status.BOT_NOT_FOUND, enrollments.get("u1").getStatus());
+    }
+
+    private Map<String, UserEnrollment> enroll(Flux<Pair<String, String>> userBots) {
+        return botService.addUsers(userBots)
+                .collectList()
+                .block(Duration.ofSeconds(10))
+                .stream()
+                .collect(Collectors.toMap(UserEnrollment::getUserId, enrollment -> enrollment));
+    }
+}
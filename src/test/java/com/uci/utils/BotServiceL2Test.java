@@ -0,0 +1,116 @@
+package com.uci.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.cache.service.RedisCacheService;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotServiceL2Test extends BotServiceTestBase {
+
+    InMemoryRedisCacheService redisCacheService;
+    AtomicInteger version = new AtomicInteger(1);
+
+    /* Serves bot "1", its name carries the current version so refetches can be told apart */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        return json("{\"responseCode\":\"OK\",\"result\":{\"id\":\"1\",\"name\":\"bot-v" + version.get() + "\"}}");
+    }
+
+    @BeforeEach
+    void init() {
+        Mockito.when(botServiceParams.isCacheL2Enabled()).thenReturn(true);
+        Mockito.when(botServiceParams.getCacheL2TtlSeconds()).thenReturn(3600L);
+        redisCacheService = new InMemoryRedisCacheService();
+        botService.setRedisCacheService(redisCacheService);
+    }
+
+    @Test
+    void missesReadThroughL2AndFetchesWriteThroughWithTheL2Ttl() throws Exception {
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+        awaitTrue(() -> redisCacheService.values.containsKey("bot-node-by-id:1"));
+        assertEquals(Long.valueOf(3600), redisCacheService.ttls.get("bot-node-by-id:1"));
+
+        /* L1 expires, L2 keeps the node for its own ttl */
+        version.set(2);
+        advance(Duration.ofHours(2));
+        assertNull(cache.getIfPresent("bot-node-by-id:1"));
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void refreshAheadSkipsL2() throws Exception {
+        Mockito.when(botServiceParams.getCacheRefreshAfterWriteSeconds()).thenReturn(1L);
+        redisCacheService.values.put("bot-node-by-id:1", "{\"id\":\"1\",\"name\":\"bot-v0\"}");
+
+        assertEquals("bot-v0", name(botService.getBotNodeFromId("1").block()));
+        assertEquals(0, campaignServer.getRequestCount());
+
+        advance(Duration.ofSeconds(1));
+        botService.getBotNodeFromId("1").block();
+        awaitTrue(() -> name((JsonNode) cache.getIfPresent("bot-node-by-id:1")).equals("bot-v1"));
+        awaitTrue(() -> redisCacheService.values.get("bot-node-by-id:1").contains("bot-v1"));
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void prefixInvalidationDeletesL2Keys() throws Exception {
+        redisCacheService.values.put("bot-node-by-id:1", "{}");
+        redisCacheService.values.put("adapter-by-id: 1", "{}");
+
+        botService.invalidatePrefix("bot-node-by-id:");
+        awaitTrue(() -> !redisCacheService.values.containsKey("bot-node-by-id:1"));
+        assertTrue(redisCacheService.values.containsKey("adapter-by-id: 1"));
+
+        botService.invalidatePrefix(null);
+        awaitTrue(() -> redisCacheService.values.isEmpty());
+    }
+
+    /* Bot config part of RedisCacheService, kept in memory */
+    static class InMemoryRedisCacheService extends RedisCacheService {
+        final Map<String, String> values = new ConcurrentHashMap<>();
+        final Map<String, Long> ttls = new ConcurrentHashMap<>();
+
+        InMemoryRedisCacheService() {
+            super(null, 3600);
+        }
+
+        @Override
+        public String getBotConfigCache(String key) {
+            return values.get(key);
+        }
+
+        @Override
+        public Map<String, String> getBotConfigCache(List<String> keys) {
+            Map<String, String> found = new HashMap<>();
+            keys.stream().filter(values::containsKey).forEach(key -> found.put(key, values.get(key)));
+            return found;
+        }
+
+        @Override
+        public void setBotConfigCache(String key, String value, long expireSeconds) {
+            values.put(key, value);
+            ttls.put(key, expireSeconds);
+        }
+
+        @Override
+        public void deleteBotConfigCache(Collection<String> keys) {
+            keys.forEach(values::remove);
+        }
+
+        @Override
+        public void deleteBotConfigCacheByPrefix(String prefix) {
+            values.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.uci.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.bot.util.JsonUtil;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BotServiceNegativeCacheTest extends BotServiceTestBase {
+
+    AtomicInteger failures = new AtomicInteger();
+
+    /* Fails the first requests while failures are left, then serves bot "1" & no other bot or adapter */
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        if (failures.getAndDecrement() > 0) {
+            return new MockResponse().setResponseCode(503);
+        }
+        String path = request.getPath();
+        String result = path != null && path.equals("/admin/bot/1") ? "{\"id\":\"1\",\"name\":\"bot-1\"}" : "{}";
+        return json("{\"responseCode\":\"OK\",\"result\":" + result + "}");
+    }
+
+    @BeforeEach
+    void init() {
+        Mockito.when(botServiceParams.getStaleNodesMaxSize()).thenReturn(100L);
+    }
+
+    @Test
+    void errorsAreNotNegativelyCached() {
+        failures.set(1);
+
+        assertTrue(botService.getBotNodeFromId("1").block().isEmpty());
+        assertEquals("", botService.getBotIdFromBotName("bot-1").block());
+        assertEquals("bot-1", botService.getBotNodeFromId("1").block().path("name").asText());
+        assertEquals(3, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void emptyResponsesAreNegativelyCached() {
+        assertTrue(botService.getBotNodeFromId("2").block().isEmpty());
+        assertTrue(botService.getBotNodeFromId("2").block().isEmpty());
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void unknownAdapterIsNegativelyCached() {
+        JsonNode adapter = botService.getAdapterByID("unknown").block();
+        assertTrue(adapter != null && adapter.isEmpty());
+        botService.getAdapterByID("unknown").block();
+        assertEquals(1, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void lastKnownNodeIsServedOnErrorsButNotCached() throws Exception {
+        failures.set(2);
+        botService.putStaleNodes(Collections.singletonMap("bot-node-by-id:3",
+                JsonUtil.getMapper().readTree("{\"id\":\"3\",\"name\":\"bot-3\"}")));
+
+        assertEquals("bot-3", botService.getBotNodeFromId("3").block().path("name").asText());
+        assertNull(cache.getIfPresent("bot-node-by-id:3"));
+        assertNull(cache.getIfPresent("bot-config-by-id:3"));
+
+        /* Invalidated bots are not served stale anymore */
+        botService.invalidateBot("3", null);
+        assertTrue(botService.getBotNodeFromId("3").block().isEmpty());
+        assertEquals(2, campaignServer.getRequestCount());
+    }
+}
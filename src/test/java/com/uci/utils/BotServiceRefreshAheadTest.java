@@ -0,0 +1,69 @@
+package com.uci.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotServiceRefreshAheadTest extends BotServiceTestBase {
+
+    /* Version of bot "1" served, 0 serves no bot */
+    AtomicInteger version = new AtomicInteger(1);
+
+    @Override
+    MockResponse dispatch(RecordedRequest request) {
+        String result = version.get() > 0 ? "{\"id\":\"1\",\"name\":\"bot-v" + version.get() + "\"}" : "{}";
+        return json("{\"responseCode\":\"OK\",\"result\":" + result + "}");
+    }
+
+    @BeforeEach
+    void init() {
+        Mockito.when(botServiceParams.getCacheRefreshAfterWriteSeconds()).thenReturn(1L);
+    }
+
+    @Test
+    void dueEntriesAreServedThenReplacedInBackground() throws Exception {
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+
+        version.set(2);
+        advance(Duration.ofSeconds(1));
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+        awaitTrue(() -> name((JsonNode) cache.getIfPresent("bot-node-by-id:1")).equals("bot-v2"));
+        /* The reload replaces every key of the bot, not only the one looked up */
+        assertEquals("bot-v2", name((JsonNode) cache.getIfPresent("bot-for-name:bot-v2")));
+        assertEquals("bot-v2", name(botService.getBotNodeFromId("1").block()));
+        assertEquals(2, campaignServer.getRequestCount());
+    }
+
+    @Test
+    void emptyReloadsKeepTheCachedValue() throws Exception {
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+
+        version.set(0);
+        advance(Duration.ofSeconds(1));
+        botService.getBotNodeFromId("1").block();
+        awaitTrue(() -> campaignServer.getRequestCount() == 2);
+        /* The failed reload does not make the next hits reload again within the interval */
+        for (int i = 0; i < 5; i++) {
+            assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+        }
+        Thread.sleep(100);
+        assertEquals(2, campaignServer.getRequestCount());
+
+        /* One more reload once the next interval passes */
+        advance(Duration.ofSeconds(1));
+        botService.getBotNodeFromId("1").block();
+        botService.getBotNodeFromId("1").block();
+        awaitTrue(() -> campaignServer.getRequestCount() == 3);
+        Thread.sleep(100);
+        assertEquals(3, campaignServer.getRequestCount());
+        assertEquals("bot-v1", name(botService.getBotNodeFromId("1").block()));
+    }
+}
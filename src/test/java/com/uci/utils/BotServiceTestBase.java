@@ -0,0 +1,91 @@
+package com.uci.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.dto.BotServiceParams;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.Mockito;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Shared fixture of the BotService tests: a local stand-in for the campaign service answering with dispatch(),
+ * mocked params to stub in the test's own @BeforeEach, and a BotService on a cache whose clock only moves when
+ * the test advances it.
+ */
+abstract class BotServiceTestBase {
+
+    MockWebServer campaignServer;
+    WebClient webClient;
+    BotServiceParams botServiceParams;
+    final AtomicLong tickerNanos = new AtomicLong();
+    Cache<Object, Object> cache;
+    BotService botService;
+
+    /**
+     * Campaign service response to a request
+     *
+     * @param request
+     * @return
+     */
+    abstract MockResponse dispatch(RecordedRequest request);
+
+    @BeforeEach
+    void startCampaignServer() throws IOException {
+        campaignServer = new MockWebServer();
+        campaignServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return BotServiceTestBase.this.dispatch(request);
+            }
+        });
+        campaignServer.start();
+
+        botServiceParams = Mockito.mock(BotServiceParams.class);
+        webClient = WebClient.builder().baseUrl(campaignServer.url("/").toString()).build();
+        /* The age of an entry is read from its expiry, refresh-ahead needs expireAfterWrite */
+        cache = Caffeine.newBuilder().ticker(tickerNanos::get).expireAfterWrite(Duration.ofHours(1)).build();
+        botService = new BotService(webClient, null, cache, botServiceParams);
+    }
+
+    @AfterEach
+    void stopCampaignServer() throws IOException {
+        campaignServer.shutdown();
+    }
+
+    /**
+     * Move the cache clock forward
+     *
+     * @param duration
+     */
+    void advance(Duration duration) {
+        tickerNanos.addAndGet(duration.toNanos());
+    }
+
+    String name(JsonNode botNode) {
+        return botNode == null ? "" : botNode.path("name").asText();
+    }
+
+    void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+}
@@ -0,0 +1,87 @@
+package com.uci.utils;
+
+import com.uci.utils.http.AdaptiveConcurrencyLimiter;
+import com.uci.utils.http.ClusterRateLimiter;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UtilAppConfigurationTest {
+
+    MockWebServer campaignServer;
+    UtilAppConfiguration configuration;
+    ConnectionProvider connectionProvider;
+
+    @BeforeEach
+    void init() throws IOException {
+        campaignServer = new MockWebServer();
+        campaignServer.start();
+
+        configuration = new UtilAppConfiguration();
+        configuration.CAMPAIGN_URL = campaignServer.url("/").toString();
+        configuration.CAMPAIGN_ADMIN_TOKEN = "token";
+        configuration.poolMaxConnections = 1;
+        configuration.poolPendingAcquireMaxCount = 10;
+        configuration.poolPendingAcquireTimeout = 200L;
+        configuration.poolMaxIdleTime = 30L;
+        configuration.poolMaxLifeTime = 300L;
+        configuration.poolEvictInterval = 60L;
+        configuration.connectTimeout = 1000;
+        configuration.keepAliveEnabled = true;
+        configuration.compressionEnabled = true;
+        configuration.http2Enabled = false;
+        connectionProvider = configuration.connectionProvider();
+    }
+
+    @AfterEach
+    void teardown() {
+        connectionProvider.dispose();
+        campaignServer.shutdown();
+    }
+
+    @Test
+    void campaignClientSendsTheAdminTokenAndAcceptsCompression() throws Exception {
+        campaignServer.enqueue(new MockResponse().setBody("ok"));
+        WebClient webClient = webClient();
+
+        assertEquals("ok", webClient.get().uri("admin/health/ping").retrieve().bodyToMono(String.class).block());
+        RecordedRequest request = campaignServer.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("token", request.getHeader("admin-token"));
+        assertTrue(request.getHeader("Accept-Encoding").contains("gzip"));
+    }
+
+    @Test
+    void requestsOverMaxConnectionsWaitUpToTheAcquireTimeout() {
+        campaignServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(1, TimeUnit.SECONDS));
+        campaignServer.enqueue(new MockResponse().setBody("fast"));
+        WebClient webClient = webClient();
+
+        Mono<String> slow = webClient.get().uri("slow").retrieve().bodyToMono(String.class).cache();
+        slow.subscribe(body -> {}, throwable -> {});
+        /* The only connection is busy for longer than the 200ms acquire timeout */
+        Throwable error = assertThrows(RuntimeException.class, () -> webClient.get().uri("fast").retrieve().bodyToMono(String.class)
+                .block(Duration.ofSeconds(5)));
+        assertTrue(error.getMessage().contains("Pool#acquire"));
+        assertEquals("slow", slow.block(Duration.ofSeconds(5)));
+    }
+
+    /* Campaign client on the pooled connector, without the optional limiters */
+    WebClient webClient() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        return configuration.getWebClient(configuration.clientHttpConnector(connectionProvider),
+                beanFactory.getBeanProvider(AdaptiveConcurrencyLimiter.class), beanFactory.getBeanProvider(ClusterRateLimiter.class));
+    }
+}
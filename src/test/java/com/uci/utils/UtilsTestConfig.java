@@ -3,8 +3,10 @@ package com.uci.utils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.cache.NegativeCache;
 import com.uci.utils.dto.BotServiceParams;
 import com.uci.utils.kafka.KafkaConfig;
+import com.uci.utils.service.FusionAuthGateway;
 import com.uci.utils.service.UserService;
 import io.fusionauth.client.FusionAuthClient;
 import org.apache.kafka.clients.admin.AdminClient;
@@ -30,6 +32,9 @@ public class UtilsTestConfig {
 	@MockBean
 	AdminClient adminClient;
 
+	@MockBean
+	FusionAuthGateway fusionAuthGateway;
+
     @Bean
     public UserService getUserService() {
         return new UserService();
@@ -50,6 +55,11 @@ public class UtilsTestConfig {
         return new BotService(webClient, fusionAuthClient, null, botServiceParams);
     }
 
+    @Bean
+    public NegativeCache negativeCache() {
+        return new NegativeCache(100, Duration.ofSeconds(30));
+    }
+
 	@Bean
 	public ObjectMapper objectMapper() {
 		return new ObjectMapper();
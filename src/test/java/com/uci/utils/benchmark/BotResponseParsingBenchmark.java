@@ -0,0 +1,89 @@
+package com.uci.utils.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uci.utils.bot.util.JsonUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing an admin/bot/search response the old way (decode to String, new ObjectMapper, readTree
+ * of the whole payload) with streaming extraction of result.data[0] using the shared mapper.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.uci.utils.benchmark.BotResponseParsingBenchmark
+ * The gc profiler reports the allocation rate (gc.alloc.rate.norm = bytes per parse).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotResponseParsingBenchmark {
+
+    /* Bots per search page, the search is called with perPage 5 */
+    @Param({"1", "5"})
+    int botsPerPage;
+
+    byte[] response;
+
+    @Setup
+    public void setup() {
+        StringBuilder data = new StringBuilder();
+        for (int i = 0; i < botsPerPage; i++) {
+            if (i > 0) {
+                data.append(",");
+            }
+            data.append("{\"id\":\"d655cf03-1f6f-4510-acf6-d3f51b488a5").append(i).append("\",\"name\":\"UCIDemo").append(i)
+                    .append("\",\"startingMessage\":\"HiUCI").append(i).append("\",\"users\":[],\"logicIDs\":[\"e96b0865-5a76-4566-8694-c09361b8ae32\"],")
+                    .append("\"owners\":null,\"created_at\":\"2021-07-08T18:48:37.740Z\",\"updated_at\":\"2022-02-11T14:09:53.570Z\",")
+                    .append("\"status\":\"enabled\",\"description\":\"ForInternalDemo\",\"startDate\":\"2022-02-01T00:00:00.000Z\",\"endDate\":null,")
+                    .append("\"purpose\":\"ForInternalDemo\",\"ownerOrgID\":\"ORG_001\",\"ownerID\":\"95e4942d-cbe8-477d-aebd-ad8e6de4bfc8\",\"userSegments\":[],")
+                    .append("\"logic\":[{\"id\":\"e96b0865-5a76-4566-8694-c09361b8ae32\",\"transformers\":[{\"id\":\"bbf56981-b8c9-40e9-8067-468c2c753659\",")
+                    .append("\"meta\":{\"form\":\"https://hosted.my.form.here.com\",\"formID\":\"UCI-demo-1\"}}],")
+                    .append("\"adapter\":{\"id\":\"44a9df72-3d7a-4ece-94c5-98cf26307324\",\"channel\":\"WhatsApp\",\"provider\":\"gupshup\",")
+                    .append("\"config\":{\"2WAY\":\"2000193033\",\"phone\":\"9876543210\",\"HSM_ID\":\"2000193031\",")
+                    .append("\"credentials\":{\"vault\":\"samagra\",\"variable\":\"gupshupSamagraProd\"}},\"name\":\"SamagraProd\",")
+                    .append("\"updated_at\":\"2021-06-16T06:02:39.125Z\",\"created_at\":\"2021-06-16T06:02:41.823Z\"},\"name\":\"UCIDemo\",")
+                    .append("\"created_at\":\"2021-07-08T18:47:44.925Z\",\"updated_at\":\"2022-02-03T12:29:32.959Z\",\"description\":null}]}");
+        }
+        response = ("{\"id\":\"api.bot.search\",\"ver\":\"1.0\",\"ts\":\"2022-02-11T14:09:53.570Z\",\"params\":{\"status\":\"successful\"},"
+                + "\"responseCode\":\"OK\",\"result\":{\"data\":[" + data + "],\"total\":" + botsPerPage + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonNode readTreePerCall() throws IOException {
+        String body = new String(response, StandardCharsets.UTF_8);
+        JsonNode root = new ObjectMapper().readTree(body);
+        if (root.path("result") != null && root.path("result").get("data") != null
+                && root.path("result").get("data").size() > 0
+                && !root.path("result").get("data").get(0).isEmpty()) {
+            return root.path("result").get("data").get(0);
+        }
+        return new ObjectMapper().createObjectNode();
+    }
+
+    @Benchmark
+    public JsonNode streamingExtract() throws IOException {
+        JsonNode botNode = JsonUtil.extract(new ByteArrayInputStream(response), "result", "data", 0);
+        return botNode.isEmpty() ? JsonUtil.emptyNode() : botNode;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BotResponseParsingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
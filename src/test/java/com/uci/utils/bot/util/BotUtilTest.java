@@ -3,10 +3,19 @@ package com.uci.utils.bot.util;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uci.utils.model.AdapterConfig;
+import com.uci.utils.model.BotConfig;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -61,4 +70,50 @@ class BotUtilTest {
         Boolean result = BotUtil.checkBotEndDateValid(endDate);
         assertTrue(result);
     }
-}
\ No newline at end of file
+
+    @Test
+    void checkBotDatesAgainstClock() {
+        BotUtil.setClock(Clock.fixed(Instant.parse("2022-03-01T10:00:00Z"), ZoneOffset.UTC));
+        try {
+            assertTrue(BotUtil.checkBotStartDateValid("2022-03-01T00:00:00.000Z"));
+            assertFalse(BotUtil.checkBotStartDateValid("2022-03-02T00:00:00.000Z"));
+            assertTrue(BotUtil.checkBotEndDateValid("2022-03-01T00:00:00.000Z"));
+            assertFalse(BotUtil.checkBotEndDateValid("2022-02-28T00:00:00.000Z"));
+            assertFalse(BotUtil.checkBotEndDateValid("not a date"));
+            assertEquals(Instant.parse("2022-03-01T23:59:59Z"), BotUtil.botEndInstant("2022-03-01T00:00:00.000Z"));
+        } finally {
+            BotUtil.setClock(Clock.systemDefaultZone());
+        }
+    }
+
+    @Test
+    void botDatesFollowTheClockZone() {
+        Instant now = Instant.parse("2022-03-01T10:00:00Z");
+        try {
+            BotUtil.setClock(Clock.fixed(now, ZoneOffset.UTC));
+            assertEquals(Instant.parse("2022-03-01T23:59:59Z"), BotUtil.botEndInstant("2022-03-01T00:00:00.000Z"));
+
+            /* Same date text, parsed again for the new zone rather than served from the UTC entry */
+            BotUtil.setClock(Clock.fixed(now, ZoneOffset.ofHours(5)));
+            assertEquals(Instant.parse("2022-03-01T18:59:59Z"), BotUtil.botEndInstant("2022-03-01T00:00:00.000Z"));
+        } finally {
+            BotUtil.setClock(Clock.systemDefaultZone());
+        }
+    }
+
+    @Test
+    void toBotConfig() throws JsonProcessingException {
+        String jsonString = "{\"id\":\"d655cf03-1f6f-4510-acf6-d3f51b488a5e\",\"name\":\"UCIDemo\",\"startingMessage\":\"HiUCI\",\"logicIDs\":[\"e96b0865-5a76-4566-8694-c09361b8ae32\"],\"status\":\"enabled\",\"startDate\":\"2022-02-01T00:00:00.000Z\",\"endDate\":null,\"tags\":[\"demo\"],\"ownerOrgID\":\"ORG_001\",\"ownerID\":\"95e4942d-cbe8-477d-aebd-ad8e6de4bfc8\",\"logic\":[{\"id\":\"e96b0865-5a76-4566-8694-c09361b8ae32\",\"transformers\":[{\"meta\":{\"formID\":\"UCI-demo-1\"}}],\"adapter\":{\"id\":\"44a9df72-3d7a-4ece-94c5-98cf26307324\",\"channel\":\"WhatsApp\",\"provider\":\"gupshup\",\"config\":{\"phone\":\"9876543210\",\"credentials\":{\"vault\":\"samagra\",\"variable\":\"gupshupSamagraProd\"}}}}]}";
+        JsonNode data = objectMapper.readTree(jsonString);
+        BotConfig botConfig = BotUtil.toBotConfig(data);
+        assertEquals("UCIDemo", botConfig.getName());
+        assertEquals("44a9df72-3d7a-4ece-94c5-98cf26307324", botConfig.getAdapterId());
+        assertEquals("UCI-demo-1", botConfig.getFormID());
+        assertEquals(Collections.singletonList("demo"), botConfig.getTags());
+        assertEquals(BotUtil.checkBotValidFromJsonNode(data), botConfig.isValid());
+
+        AdapterConfig adapterConfig = BotUtil.toAdapterConfig(data.path("logic").get(0).path("adapter"));
+        assertEquals("gupshupSamagraProd", adapterConfig.getCredentialsVariable());
+        assertEquals("9876543210", adapterConfig.getConfig().get("phone"));
+    }
+}
@@ -0,0 +1,35 @@
+package com.uci.utils.bot.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonUtilTest {
+
+    private DataBuffer buffer(String json) {
+        return new DefaultDataBufferFactory().wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void extractFirstSearchResult() {
+        String jsonString = "{\"params\":{\"status\":\"successful\",\"data\":[{\"id\":\"skip\"}]},\"responseCode\":\"OK\",\"result\":{\"total\":2,\"data\":[{\"id\":\"1\",\"logic\":[{\"id\":\"l1\"}]},{\"id\":\"2\"}]}}";
+        JsonNode botNode = JsonUtil.extract(buffer(jsonString), "result", "data", 0);
+        assertEquals("1", botNode.path("id").asText());
+        assertEquals("l1", botNode.path("logic").get(0).path("id").asText());
+
+        assertEquals("2", JsonUtil.extract(buffer(jsonString), "result", "data", 1).path("id").asText());
+    }
+
+    @Test
+    void extractMissingPath() {
+        assertTrue(JsonUtil.extract(buffer("{\"result\":{\"data\":[]}}"), "result", "data", 0).isMissingNode());
+        assertTrue(JsonUtil.extract(buffer("{\"result\":null}"), "result", "data", 0).isMissingNode());
+        assertTrue(JsonUtil.extract(buffer("not json"), "result").isMissingNode());
+    }
+}
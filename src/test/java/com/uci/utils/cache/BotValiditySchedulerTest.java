@@ -0,0 +1,80 @@
+package com.uci.utils.cache;
+
+import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.model.BotConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotValiditySchedulerTest {
+
+    static final Instant NOW = Instant.parse("2022-02-01T00:00:00Z");
+
+    VirtualTimeScheduler virtualTime;
+    List<String> boundaries;
+    BotValidityScheduler validityScheduler;
+
+    @BeforeEach
+    void init() {
+        BotUtil.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        virtualTime = VirtualTimeScheduler.create();
+        boundaries = new ArrayList<>();
+        validityScheduler = new BotValidityScheduler(virtualTime, botConfig -> boundaries.add(botConfig.getId()));
+    }
+
+    @AfterEach
+    void teardown() {
+        BotUtil.setClock(Clock.systemDefaultZone());
+        virtualTime.dispose();
+    }
+
+    @Test
+    void taskRunsAtNextBoundary() {
+        validityScheduler.schedule(bot("1", NOW.plus(Duration.ofHours(1)), null));
+        validityScheduler.schedule(bot("2", NOW.minus(Duration.ofDays(1)), NOW.plus(Duration.ofHours(2))));
+        validityScheduler.schedule(bot("3", NOW.minus(Duration.ofDays(1)), null));
+        assertEquals(2, validityScheduler.getScheduledCount());
+
+        virtualTime.advanceTimeBy(Duration.ofMinutes(59));
+        assertTrue(boundaries.isEmpty());
+
+        virtualTime.advanceTimeBy(Duration.ofMinutes(1));
+        assertEquals(List.of("1"), boundaries);
+
+        virtualTime.advanceTimeBy(Duration.ofHours(1));
+        assertEquals(List.of("1", "2"), boundaries);
+        assertEquals(0, validityScheduler.getScheduledCount());
+    }
+
+    @Test
+    void reschedulingReplacesAndCancelDropsTheTask() {
+        validityScheduler.schedule(bot("1", NOW.plus(Duration.ofHours(1)), null));
+        validityScheduler.schedule(bot("1", NOW.plus(Duration.ofHours(3)), null));
+        virtualTime.advanceTimeBy(Duration.ofHours(2));
+        assertTrue(boundaries.isEmpty());
+
+        validityScheduler.cancel("1");
+        virtualTime.advanceTimeBy(Duration.ofHours(2));
+        assertTrue(boundaries.isEmpty());
+        assertEquals(0, validityScheduler.getScheduledCount());
+    }
+
+    private BotConfig bot(String id, Instant validFrom, Instant validUntil) {
+        return BotConfig.builder()
+                .id(id)
+                .status("enabled")
+                .validFrom(validFrom)
+                .validUntil(validUntil)
+                .build();
+    }
+}
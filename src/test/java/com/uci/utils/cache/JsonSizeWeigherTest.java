@@ -0,0 +1,31 @@
+package com.uci.utils.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.bot.util.JsonUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonSizeWeigherTest {
+
+    final JsonSizeWeigher weigher = new JsonSizeWeigher();
+
+    @Test
+    void jsonNodesWeighAboutTheirSerializedSize() throws Exception {
+        JsonNode botNode = JsonUtil.getMapper().readTree("{\"id\":\"1\",\"name\":\"bot-1\",\"status\":\"enabled\","
+                + "\"users\":[1,2,3],\"logicIDs\":[{\"id\":\"l1\",\"adapter\":{\"provider\":\"gupshup\",\"channel\":\"WhatsApp\"}}]}");
+        int serializedSize = botNode.toString().length();
+
+        int weight = weigher.weigh("", botNode);
+        assertTrue(weight >= serializedSize / 2 && weight <= serializedSize * 2);
+    }
+
+    @Test
+    void otherValuesWeighAFixedCost() {
+        /* Not serializable by Jackson, weighed without trying */
+        Object value = new Object();
+        assertEquals(4 + 1024, weigher.weigh("key1", value));
+        assertEquals(4 + 5, weigher.weigh("key1", "value"));
+    }
+}
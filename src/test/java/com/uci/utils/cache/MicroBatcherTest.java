@@ -0,0 +1,55 @@
+package com.uci.utils.cache;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MicroBatcherTest {
+
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /* Slow loader returning "value-" + key, failing batches with key "bad" */
+    final Function<Collection<String>, Mono<Map<String, String>>> loader = keys -> Mono.defer(() -> {
+        if (keys.contains("bad")) {
+            return Mono.error(new IllegalStateException("batch failed"));
+        }
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        return Mono.just(keys.stream().collect(Collectors.toMap(key -> key, key -> "value-" + key)))
+                .delayElement(Duration.ofMillis(100))
+                .doOnNext(values -> inFlight.decrementAndGet());
+    });
+
+    @Test
+    void batchesLoadAtMostMaxConcurrencyAtATime() {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test-concurrency", 1, Duration.ofMillis(10), 2, loader);
+
+        List<String> values = Flux.range(0, 6)
+                .flatMap(i -> batcher.load(String.valueOf(i)))
+                .collectList()
+                .block();
+
+        assertEquals(6, values.size());
+        assertTrue(maxInFlight.get() <= 2);
+    }
+
+    @Test
+    void failedBatchFailsOnlyItsCallers() {
+        MicroBatcher<String, String> batcher = new MicroBatcher<>("test-failure", 1, Duration.ofMillis(10), 2, loader);
+
+        assertThrows(IllegalStateException.class, () -> batcher.load("bad").block());
+        assertEquals("value-1", batcher.load("1").block());
+    }
+}
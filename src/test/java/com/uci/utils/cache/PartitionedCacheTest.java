@@ -0,0 +1,66 @@
+package com.uci.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedCacheTest {
+
+    Cache<Object, Object> defaultPartition;
+    Cache<Object, Object> botPartition;
+    PartitionedCache cache;
+
+    @BeforeEach
+    void init() {
+        defaultPartition = Caffeine.newBuilder().recordStats().build();
+        botPartition = Caffeine.newBuilder()
+                .maximumWeight(100)
+                .weigher(new JsonSizeWeigher())
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        cache = new PartitionedCache("default", defaultPartition)
+                .addPartition("bot", botPartition, "bot-");
+    }
+
+    @Test
+    void keysAreRoutedByPrefix() {
+        cache.put("bot-node-by-id:1", "bot");
+        cache.put("FEDERATED USERS: USER SERVICE: url", "user");
+
+        assertEquals("bot", botPartition.getIfPresent("bot-node-by-id:1"));
+        assertEquals("user", defaultPartition.getIfPresent("FEDERATED USERS: USER SERVICE: url"));
+        assertEquals("bot", cache.getIfPresent("bot-node-by-id:1"));
+        assertSame(botPartition, cache.partitionFor("bot-name-by-id:1"));
+        assertEquals(2, cache.asMap().size());
+    }
+
+    @Test
+    void floodInOnePartitionDoesNotEvictAnother() {
+        cache.put("default-key", "value");
+        for (int i = 0; i < 20; i++) {
+            cache.put("bot-" + i, "xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx");
+        }
+        cache.cleanUp();
+
+        assertEquals("value", cache.getIfPresent("default-key"));
+        assertTrue(botPartition.estimatedSize() < 20);
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void mapViewSpansAllPartitions() {
+        cache.put("bot-1", "a");
+        cache.put("other", "b");
+        cache.asMap().keySet().removeIf(key -> key.toString().startsWith("bot-"));
+
+        assertNull(cache.getIfPresent("bot-1"));
+        assertEquals("b", cache.getIfPresent("other"));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.estimatedSize());
+    }
+}
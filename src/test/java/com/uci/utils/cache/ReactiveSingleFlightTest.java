@@ -0,0 +1,59 @@
+package com.uci.utils.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveSingleFlightTest {
+
+    ReactiveSingleFlight singleFlight;
+    AtomicInteger fetchCalls;
+
+    @BeforeEach
+    void init() {
+        singleFlight = new ReactiveSingleFlight("test");
+        fetchCalls = new AtomicInteger();
+    }
+
+    private Mono<String> slowFetch() {
+        return Mono.fromCallable(() -> "value-" + fetchCalls.incrementAndGet())
+                .delayElement(Duration.ofMillis(200));
+    }
+
+    @Test
+    void concurrentMissesShareOneFetch() {
+        List<String> results = Flux.range(0, 10)
+                .flatMap(i -> singleFlight.execute("key", this::slowFetch).subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block();
+
+        assertEquals(10, results.size());
+        assertEquals(1, fetchCalls.get());
+        assertEquals(1, singleFlight.fetchCount());
+        assertEquals(9, singleFlight.coalescedCount());
+        results.forEach(result -> assertEquals("value-1", result));
+    }
+
+    @Test
+    void keyIsReleasedAfterFetchCompletes() {
+        assertEquals("value-1", singleFlight.execute("key", this::slowFetch).block());
+        assertEquals("value-2", singleFlight.execute("key", this::slowFetch).block());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void differentKeysAreNotCoalesced() {
+        Flux.merge(singleFlight.execute("key-1", this::slowFetch), singleFlight.execute("key-2", this::slowFetch))
+                .blockLast();
+        assertEquals(2, fetchCalls.get());
+        assertEquals(0, singleFlight.coalescedCount());
+    }
+}
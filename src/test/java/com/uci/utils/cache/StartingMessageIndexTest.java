@@ -0,0 +1,88 @@
+package com.uci.utils.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.bot.util.BotUtil;
+import com.uci.utils.bot.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartingMessageIndexTest {
+
+    StartingMessageIndex index;
+
+    @BeforeEach
+    void init() throws Exception {
+        index = new StartingMessageIndex();
+        index.rebuild(Arrays.asList(
+                bot("1", "Hi UCI", "enabled"),
+                bot("2", "Hi UCI Quiz", "enabled"),
+                bot("3", "Old Bot", "disabled")));
+    }
+
+    @Test
+    void lookupIgnoresCasePunctuationAndWhitespace() {
+        assertEquals("1", index.lookup("hi uci").path("id").asText());
+        assertEquals("1", index.lookup("  Hi,   UCI! ").path("id").asText());
+        assertEquals("2", index.lookup("HI UCI QUIZ").path("id").asText());
+        assertNull(index.lookup("Old Bot"));
+        assertNull(index.lookup("Hello"));
+    }
+
+    @Test
+    void prefixMatchPicksLongestStartingMessage() {
+        assertNull(index.lookup("Hi UCI Quiz please"));
+
+        index.setPrefixMatchEnabled(true);
+        assertEquals("2", index.lookup("Hi UCI Quiz please").path("id").asText());
+        assertEquals("1", index.lookup("hi uci, start").path("id").asText());
+        assertNull(index.lookup("hi ucix"));
+    }
+
+    @Test
+    void putAndRemoveUpdateTheIndex() throws Exception {
+        index.put(bot("1", "Namaste", "enabled"));
+        assertNull(index.lookup("Hi UCI"));
+        assertEquals("1", index.lookup("namaste").path("id").asText());
+
+        index.remove("1");
+        assertNull(index.lookup("namaste"));
+    }
+
+    @Test
+    void lookupBeforeBuildIsNull() {
+        StartingMessageIndex empty = new StartingMessageIndex();
+        assertFalse(empty.isLoaded());
+        assertNull(empty.lookup("Hi UCI"));
+    }
+
+    @Test
+    void sharedStartingMessageResolvesToTheBotValidOnTheClock() throws Exception {
+        try {
+            BotUtil.setClock(Clock.fixed(Instant.parse("2022-02-15T10:00:00Z"), ZoneOffset.UTC));
+            index.rebuild(Arrays.asList(
+                    bot("4", "Hi Season", "2022-02-01T00:00:00.000Z", "2022-03-01T00:00:00.000Z"),
+                    bot("5", "Hi Season", "2022-03-01T00:00:00.000Z", null)));
+            assertEquals("4", index.lookup("hi season").path("id").asText());
+        } finally {
+            BotUtil.setClock(Clock.systemDefaultZone());
+        }
+    }
+
+    private JsonNode bot(String id, String startingMessage, String startDate, String endDate) throws Exception {
+        return JsonUtil.getMapper().readTree("{\"id\":\"" + id + "\",\"name\":\"bot" + id + "\",\"startingMessage\":\""
+                + startingMessage + "\",\"status\":\"enabled\",\"startDate\":\"" + startDate + "\",\"endDate\":"
+                + (endDate == null ? "null" : "\"" + endDate + "\"") + "}");
+    }
+
+    private JsonNode bot(String id, String startingMessage, String status) throws Exception {
+        return JsonUtil.getMapper().readTree("{\"id\":\"" + id + "\",\"name\":\"bot" + id + "\",\"startingMessage\":\""
+                + startingMessage + "\",\"status\":\"" + status + "\",\"startDate\":\"2022-02-01T00:00:00.000Z\"}");
+    }
+}
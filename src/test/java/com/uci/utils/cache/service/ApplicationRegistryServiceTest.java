@@ -0,0 +1,89 @@
+package com.uci.utils.cache.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.inversoft.rest.ClientResponse;
+import com.uci.utils.BotService;
+import com.uci.utils.dto.BotServiceParams;
+import io.fusionauth.client.FusionAuthClient;
+import io.fusionauth.domain.Application;
+import io.fusionauth.domain.api.ApplicationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApplicationRegistryServiceTest {
+
+    List<Application> applications;
+    FusionAuthClient fusionAuthClient;
+    ApplicationRegistryService applicationRegistryService;
+
+    @BeforeEach
+    void init() {
+        applications = new ArrayList<>();
+        fusionAuthClient = Mockito.mock(FusionAuthClient.class);
+        Mockito.when(fusionAuthClient.retrieveApplications()).thenAnswer(invocation -> {
+            ClientResponse<ApplicationResponse, Void> response = new ClientResponse<>();
+            response.status = 200;
+            response.successResponse = new ApplicationResponse();
+            response.successResponse.applications = new ArrayList<>(applications);
+            return response;
+        });
+        applicationRegistryService = new ApplicationRegistryService();
+        ReflectionTestUtils.setField(applicationRegistryService, "fusionAuthClient", fusionAuthClient);
+    }
+
+    @Test
+    void lookupsUseTheIndexes() {
+        Application application = application("UCI Bot", "uci-bot");
+        applications.add(application);
+
+        assertFalse(applicationRegistryService.isLoaded());
+        assertTrue(applicationRegistryService.refresh().block());
+        assertSame(application, applicationRegistryService.getById(application.id));
+        assertSame(application, applicationRegistryService.getByName("UCI Bot"));
+        assertSame(application, applicationRegistryService.getByAppName("uci-bot"));
+        assertNull(applicationRegistryService.getByName("unknown"));
+    }
+
+    @Test
+    void indexesAreRebuiltOnlyOnChange() {
+        Application application = application("UCI Bot", "uci-bot");
+        applications.add(application);
+
+        assertTrue(applicationRegistryService.refresh().block());
+        assertFalse(applicationRegistryService.refresh().block());
+
+        application.data.put("appName", "renamed");
+        assertTrue(applicationRegistryService.refresh().block());
+        assertSame(application, applicationRegistryService.getByAppName("renamed"));
+    }
+
+    @Test
+    void botServiceFallsBackToFusionAuthOnRegistryMisses() {
+        applications.add(application("UCI Bot", "uci-bot"));
+        assertTrue(applicationRegistryService.refresh().block());
+        BotService botService = new BotService(null, fusionAuthClient, Caffeine.newBuilder().build(), Mockito.mock(BotServiceParams.class));
+        botService.setApplicationRegistryService(applicationRegistryService);
+
+        /* Added after the last refresh */
+        Application added = application("New Bot", "new-bot");
+        applications.add(added);
+        assertEquals(added.id, botService.getCampaignFromNameESamwad("new-bot").id);
+        assertNull(botService.getCampaignFromNameESamwad("unknown"));
+    }
+
+    private Application application(String name, String appName) {
+        Application application = new Application();
+        application.id = UUID.randomUUID();
+        application.name = name;
+        application.data.put("appName", appName);
+        return application;
+    }
+}
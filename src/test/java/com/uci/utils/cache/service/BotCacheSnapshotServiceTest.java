@@ -0,0 +1,104 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.BotService;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.dto.BotServiceParams;
+import com.uci.utils.model.BotConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotCacheSnapshotServiceTest {
+
+    Path snapshotPath;
+    BotServiceParams botServiceParams;
+
+    @BeforeEach
+    void init() throws IOException {
+        snapshotPath = Files.createTempFile("uci-bot-cache", ".snapshot");
+        botServiceParams = Mockito.mock(BotServiceParams.class);
+        Mockito.when(botServiceParams.getStaleNodesMaxSize()).thenReturn(100L);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Test
+    void snapshotRoundTripLeavesCredentialsOut() throws Exception {
+        Cache<Object, Object> cache = Caffeine.newBuilder().build();
+        BotService botService = botService(cache);
+        botService.cacheBotNode(JsonUtil.getMapper().readTree("{\"id\":\"1\",\"name\":\"bot-1\",\"startingMessage\":\"Hi\"}"));
+        cache.put("adapter-credentials-by-id: gupshup", JsonUtil.getMapper().readTree("{\"password\":\"secret\"}"));
+
+        snapshotService(botService).snapshot();
+
+        Map<String, JsonNode> nodes = snapshotService(botService).load(snapshotPath);
+        assertEquals(3, nodes.size());
+        assertEquals("bot-1", nodes.get("bot-node-by-id:1").path("name").asText());
+        assertFalse(nodes.containsKey("adapter-credentials-by-id: gupshup"));
+        assertFalse(new String(Files.readAllBytes(snapshotPath)).contains("secret"));
+    }
+
+    @Test
+    void restoredEntriesExpireAfterTheRestoreTtl() throws Exception {
+        Cache<Object, Object> cache = Caffeine.newBuilder().build();
+        BotService botService = botService(cache);
+        botService.restoreCachedNodes(Map.of(
+                "bot-node-by-id:1", JsonUtil.getMapper().readTree("{\"id\":\"1\",\"name\":\"bot-1\"}"),
+                "adapter-credentials-by-id: gupshup", JsonUtil.getMapper().readTree("{\"password\":\"secret\"}")),
+                Duration.ofMillis(200));
+
+        assertNotNull(cache.getIfPresent("bot-node-by-id:1"));
+        assertTrue(cache.getIfPresent("bot-config-by-id:1") instanceof BotConfig);
+        assertNotNull(cache.getIfPresent("bot-for-name:bot-1"));
+        assertNull(cache.getIfPresent("adapter-credentials-by-id: gupshup"));
+
+        Thread.sleep(500);
+        assertNull(cache.getIfPresent("bot-node-by-id:1"));
+        assertNull(cache.getIfPresent("bot-config-by-id:1"));
+    }
+
+    @Test
+    void loadStopsAtTheFirstCorruptEntry() throws Exception {
+        BotService botService = botService(Caffeine.newBuilder().build());
+        botService.cacheBotNode(JsonUtil.getMapper().readTree("{\"id\":\"1\",\"name\":\"bot-1\",\"startingMessage\":\"Hi\"}"));
+        snapshotService(botService).snapshot();
+
+        /* One more entry, with a key length far past the end of the file */
+        ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+        ByteBuffer corrupt = ByteBuffer.allocate(snapshot.capacity() + 4).put(snapshot).putInt(Integer.MAX_VALUE);
+        corrupt.putInt(8, corrupt.getInt(8) + 1);
+        Files.write(snapshotPath, corrupt.array());
+
+        Map<String, JsonNode> nodes = snapshotService(botService).load(snapshotPath);
+        assertEquals(3, nodes.size());
+        assertEquals("bot-1", nodes.get("bot-node-by-id:1").path("name").asText());
+    }
+
+    BotService botService(Cache<Object, Object> cache) {
+        return new BotService(null, null, cache, botServiceParams);
+    }
+
+    BotCacheSnapshotService snapshotService(BotService botService) {
+        BotCacheSnapshotService snapshotService = new BotCacheSnapshotService();
+        ReflectionTestUtils.setField(snapshotService, "botService", botService);
+        ReflectionTestUtils.setField(snapshotService, "snapshotPath", snapshotPath.toString());
+        return snapshotService;
+    }
+}
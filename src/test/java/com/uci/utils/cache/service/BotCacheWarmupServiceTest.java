@@ -0,0 +1,95 @@
+package com.uci.utils.cache.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.BotService;
+import com.uci.utils.dto.BotServiceParams;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotCacheWarmupServiceTest {
+
+    MockWebServer campaignServer;
+    Cache<Object, Object> cache;
+    BotCacheWarmupService warmupService;
+    AtomicBoolean secondPageFails = new AtomicBoolean(true);
+
+    /* Two pages of bots then an empty page, the second page fails while secondPageFails is set */
+    final Dispatcher dispatcher = new Dispatcher() {
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            HttpUrl url = request.getRequestUrl();
+            int page = url == null ? 0 : Integer.parseInt(url.queryParameter("page"));
+            if (page == 2 && secondPageFails.get()) {
+                return new MockResponse().setResponseCode(503);
+            }
+            String data = page == 1 ? bot("1") + "," + bot("2") : page == 2 ? bot("3") : "";
+            return new MockResponse()
+                    .setHeader("Content-Type", "application/json")
+                    .setBody("{\"responseCode\":\"OK\",\"result\":{\"data\":[" + data + "]}}");
+        }
+    };
+
+    @BeforeEach
+    void init() throws IOException {
+        campaignServer = new MockWebServer();
+        campaignServer.setDispatcher(dispatcher);
+        campaignServer.start();
+
+        WebClient webClient = WebClient.builder().baseUrl(campaignServer.url("/").toString()).build();
+        cache = Caffeine.newBuilder().build();
+        BotService botService = new BotService(webClient, null, cache, Mockito.mock(BotServiceParams.class));
+        warmupService = new BotCacheWarmupService();
+        ReflectionTestUtils.setField(warmupService, "botService", botService);
+        ReflectionTestUtils.setField(warmupService, "warmEnabled", true);
+        ReflectionTestUtils.setField(warmupService, "perPage", 2);
+        ReflectionTestUtils.setField(warmupService, "maxPages", 10);
+        ReflectionTestUtils.setField(warmupService, "concurrency", 1);
+        ReflectionTestUtils.setField(warmupService, "startupTimeoutSeconds", 10L);
+        ReflectionTestUtils.setField(warmupService, "intervalSeconds", 0L);
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        warmupService.destroy();
+        campaignServer.shutdown();
+    }
+
+    @Test
+    void failedPageFailsTheRunButKeepsTheBotsLoadedBefore() {
+        assertThrows(RuntimeException.class, () -> warmupService.warmAll().block());
+
+        assertNotNull(cache.getIfPresent("bot-node-by-id:1"));
+        assertNotNull(cache.getIfPresent("bot-node-by-id:2"));
+        assertNull(cache.getIfPresent("bot-node-by-id:3"));
+    }
+
+    @Test
+    void failedStartupRunDoesNotFailStartup() {
+        warmupService.init();
+        assertNotNull(cache.getIfPresent("bot-node-by-id:1"));
+
+        /* The next run loads every page */
+        secondPageFails.set(false);
+        assertEquals(Long.valueOf(3), warmupService.warmAll().block());
+        assertNotNull(cache.getIfPresent("bot-node-by-id:3"));
+    }
+
+    static String bot(String id) {
+        return "{\"id\":\"" + id + "\",\"name\":\"bot-" + id + "\"}";
+    }
+}
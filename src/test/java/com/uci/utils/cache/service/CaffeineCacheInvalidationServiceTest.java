@@ -0,0 +1,135 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uci.utils.BotService;
+import com.uci.utils.bot.util.JsonUtil;
+import com.uci.utils.cache.NegativeCache;
+import com.uci.utils.dto.BotServiceParams;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CaffeineCacheInvalidationServiceTest {
+
+    final LoopbackRedisTemplate redisTemplate = new LoopbackRedisTemplate();
+
+    @Test
+    void prefixInvalidationKeepsOtherKeys() {
+        Node node = new Node("node-1");
+        node.cache.put("bot-node-by-id:1", JsonUtil.emptyNode().put("id", "1"));
+        node.cache.put("adapter-by-id: 1", JsonUtil.emptyNode().put("id", "1"));
+        node.negativeCache.put("bot-node-by-id:2", JsonUtil.emptyNode());
+
+        assertEquals(1, node.service.invalidateLocal("bot-node-by-id:"));
+        assertNull(node.cache.getIfPresent("bot-node-by-id:1"));
+        assertNull(node.negativeCache.getIfPresent("bot-node-by-id:2"));
+        assertNotNull(node.cache.getIfPresent("adapter-by-id: 1"));
+        assertEquals(0, node.vaultInvalidations.get());
+    }
+
+    @Test
+    void credentialInvalidationsDropVaultSecrets() {
+        Node node = new Node("node-1");
+
+        node.service.invalidateLocal("adapter-credentials: 1");
+        node.service.invalidateLocal("adapter");
+        node.service.invalidateLocal("");
+        assertEquals(3, node.vaultInvalidations.get());
+    }
+
+    @Test
+    void fullInvalidationDropsStaleNodesAndTheStartingMessageIndex() throws Exception {
+        Node node = new Node("node-1");
+        JsonNode botNode = JsonUtil.getMapper().readTree("{\"id\":\"1\",\"name\":\"bot-1\",\"startingMessage\":\"Hi\"}");
+        node.botService.cacheBotNode(botNode);
+        node.botService.putStaleNodes(Collections.singletonMap("bot-node-by-id:1", botNode));
+        node.botService.getStartingMessageIndex().rebuild(Collections.singletonList(botNode));
+
+        node.service.invalidateLocal(null);
+
+        assertEquals(0, node.cache.estimatedSize());
+        assertTrue(node.botService.getStaleNodes().get().asMap().isEmpty());
+        assertFalse(node.botService.getStartingMessageIndex().isLoaded());
+    }
+
+    @Test
+    void clusterInvalidationCollectsAcks() {
+        Node origin = new Node("node-1");
+        Node other = new Node("node-2");
+        origin.cache.put("bot-node-by-id:1", JsonUtil.emptyNode());
+        other.cache.put("bot-node-by-id:1", JsonUtil.emptyNode());
+        other.cache.put("bot-node-by-id:2", JsonUtil.emptyNode());
+        other.cache.put("adapter-by-id: 1", JsonUtil.emptyNode());
+
+        Map<String, Integer> acks = origin.service.invalidateCluster("bot-node-by-id:").block();
+
+        assertEquals(2, acks.size());
+        assertEquals(Integer.valueOf(1), acks.get("node-1"));
+        assertEquals(Integer.valueOf(2), acks.get("node-2"));
+        assertNotNull(other.cache.getIfPresent("adapter-by-id: 1"));
+    }
+
+    /* One instance, subscribed to the loopback channel */
+    class Node {
+        final Cache<Object, Object> cache = Caffeine.newBuilder().build();
+        final NegativeCache negativeCache = new NegativeCache(100, Duration.ofSeconds(30));
+        final BotService botService;
+        final VaultCredentialService vaultCredentialService = Mockito.mock(VaultCredentialService.class);
+        final AtomicInteger vaultInvalidations = new AtomicInteger();
+        final CaffeineCacheInvalidationService service = new CaffeineCacheInvalidationService();
+
+        Node(String nodeId) {
+            BotServiceParams botServiceParams = Mockito.mock(BotServiceParams.class);
+            Mockito.when(botServiceParams.getStaleNodesMaxSize()).thenReturn(100L);
+            botService = new BotService(null, null, cache, botServiceParams);
+            botService.setNegativeCache(negativeCache);
+            ReflectionTestUtils.setField(service, "cache", cache);
+            ReflectionTestUtils.setField(service, "negativeCache", negativeCache);
+            ReflectionTestUtils.setField(service, "botService", botService);
+            Mockito.doAnswer(invocation -> vaultInvalidations.incrementAndGet()).when(vaultCredentialService).invalidateAll();
+            ReflectionTestUtils.setField(service, "vaultCredentialService", vaultCredentialService);
+            ReflectionTestUtils.setField(service, "redisTemplate", redisTemplate);
+            ReflectionTestUtils.setField(service, "broadcastEnabled", true);
+            ReflectionTestUtils.setField(service, "channel", "invalidation");
+            ReflectionTestUtils.setField(service, "ackTimeoutMillis", 200L);
+            ReflectionTestUtils.setField(service, "nodeId", nodeId);
+            redisTemplate.subscribers.add(service);
+        }
+    }
+
+    /* Delivers published messages to every subscribed service, as the listener container would */
+    static class LoopbackRedisTemplate extends RedisTemplate<String, Object> {
+        final List<CaffeineCacheInvalidationService> subscribers = new CopyOnWriteArrayList<>();
+
+        @Override
+        public <T> T execute(RedisCallback<T> action) {
+            RedisConnection connection = (RedisConnection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class[]{RedisConnection.class}, (proxy, method, args) -> {
+                        if (!method.getName().equals("publish")) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        String channel = new String((byte[]) args[0], StandardCharsets.UTF_8);
+                        DefaultMessage message = new DefaultMessage((byte[]) args[0], (byte[]) args[1]);
+                        subscribers.forEach(subscriber -> ReflectionTestUtils.invokeMethod(subscriber,
+                                channel.endsWith(":ack") ? "onAck" : "onInvalidation", message, new byte[0]));
+                        return (long) subscribers.size();
+                    });
+            return action.doInRedis(connection);
+        }
+    }
+}
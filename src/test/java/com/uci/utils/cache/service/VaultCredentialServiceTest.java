@@ -0,0 +1,87 @@
+package com.uci.utils.cache.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uci.utils.dto.BotServiceParams;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class VaultCredentialServiceTest {
+
+    MockWebServer vaultServer;
+    VaultCredentialService vaultCredentialService;
+
+    @BeforeEach
+    void init() throws IOException {
+        vaultServer = new MockWebServer();
+        vaultServer.start();
+
+        BotServiceParams botServiceParams = Mockito.mock(BotServiceParams.class);
+        Mockito.when(botServiceParams.getWebclientRetryMaxAttempts()).thenReturn(1L);
+        Mockito.when(botServiceParams.getGetWebclientMinBackoff()).thenReturn(1L);
+
+        vaultCredentialService = new VaultCredentialService();
+        ReflectionTestUtils.setField(vaultCredentialService, "webClient", WebClient.create());
+        ReflectionTestUtils.setField(vaultCredentialService, "botServiceParams", botServiceParams);
+        ReflectionTestUtils.setField(vaultCredentialService, "vaultServiceUrl", vaultServer.url("/").toString());
+        ReflectionTestUtils.setField(vaultCredentialService, "vaultServiceToken", "token");
+        ReflectionTestUtils.setField(vaultCredentialService, "defaultLeaseSeconds", 300L);
+        ReflectionTestUtils.setField(vaultCredentialService, "refreshRatio", 0.8);
+        ReflectionTestUtils.setField(vaultCredentialService, "maxSize", 100L);
+        vaultCredentialService.init();
+    }
+
+    @AfterEach
+    void teardown() throws IOException {
+        vaultServer.shutdown();
+    }
+
+    @Test
+    void concurrentCallsShareOneLoad() {
+        vaultServer.enqueue(new MockResponse()
+                .setHeader("Content-Type", "application/json")
+                .setBodyDelay(200, TimeUnit.MILLISECONDS)
+                .setBody("{\"result\":{\"gupshup\":{\"password\":\"secret\"}}}"));
+
+        List<JsonNode> credentials = Flux.range(0, 10)
+                .flatMap(i -> vaultCredentialService.getCredentials("gupshup"))
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(10, credentials.size());
+        assertEquals("secret", credentials.get(0).path("password").asText());
+        assertEquals("secret", vaultCredentialService.getCredentials("gupshup").block().path("password").asText());
+        assertEquals(1, vaultServer.getRequestCount());
+    }
+
+    @Test
+    void invalidatedSecretIsLoadedAgain() {
+        vaultServer.enqueue(new MockResponse().setBody("{\"result\":{\"gupshup\":{\"password\":\"old\"}}}"));
+        vaultServer.enqueue(new MockResponse().setBody("{\"result\":{\"gupshup\":{\"password\":\"new\"}}}"));
+
+        assertEquals("old", vaultCredentialService.getCredentials("gupshup").block().path("password").asText());
+        vaultCredentialService.invalidate("gupshup");
+        assertEquals("new", vaultCredentialService.getCredentials("gupshup").block().path("password").asText());
+    }
+
+    @Test
+    void missingSecretIsEmpty() {
+        vaultServer.enqueue(new MockResponse().setBody("{\"result\":{}}"));
+
+        assertNull(vaultCredentialService.getCredentials("unknown").block());
+    }
+}
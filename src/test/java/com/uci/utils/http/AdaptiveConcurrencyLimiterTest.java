@@ -0,0 +1,94 @@
+package com.uci.utils.http;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void requestsOverTheLimitWaitForAPermit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-queue", 1, 1, 10, 1, Duration.ofSeconds(5), 1.5);
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire().block();
+
+        AtomicReference<AdaptiveConcurrencyLimiter.Permit> second = new AtomicReference<>();
+        limiter.acquire().subscribe(second::set);
+        assertNull(second.get());
+        assertEquals(1, limiter.getQueued());
+
+        first.release(true);
+        assertNotNull(second.get());
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+    }
+
+    @Test
+    void requestsAreShedWhenQueueIsFullOrDeadlinePasses() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-shed", 1, 1, 10, 1, Duration.ofMillis(100), 1.5);
+        limiter.acquire().block();
+        Mono<AdaptiveConcurrencyLimiter.Permit> queued = limiter.acquire().cache();
+        queued.subscribe(permit -> {}, throwable -> {});
+
+        assertThrows(CallNotPermittedException.class, () -> limiter.acquire().block());
+        assertThrows(CallNotPermittedException.class, () -> queued.block(Duration.ofSeconds(1)));
+        assertEquals(0, limiter.getQueued());
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void droppedRequestsShrinkTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-drop", 20, 5, 100, 0, Duration.ofSeconds(1), 1.5);
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire().block().release(false);
+        }
+
+        assertTrue(limiter.getLimit() < 20);
+        assertTrue(limiter.getLimit() >= 5);
+    }
+
+    @Test
+    void limitGrowsWhileLatencyStaysAtBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-grow", 10, 5, 100, 0, Duration.ofSeconds(1), 1.5);
+        for (int round = 0; round < 20; round++) {
+            List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            for (int i = 0; i < limiter.getLimit(); i++) {
+                permits.add(limiter.acquire().block());
+            }
+            permits.forEach(permit -> permit.release(true));
+        }
+
+        assertTrue(limiter.getLimit() > 10);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void interceptorRunsOnlyOnBlockingThreads() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test-interceptor", 1, 1, 10, 1, Duration.ofSeconds(1), 1.5);
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(limiter.interceptor()).build();
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setBody("ok"));
+            server.start();
+            Mono<Integer> call = Mono.fromCallable(() -> {
+                try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+                    return response.code();
+                }
+            });
+
+            assertEquals(Integer.valueOf(200), call.subscribeOn(Schedulers.boundedElastic()).block());
+            assertThrows(IllegalStateException.class, () -> call.subscribeOn(Schedulers.parallel()).block());
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+}
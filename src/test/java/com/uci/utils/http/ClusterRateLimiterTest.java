@@ -0,0 +1,68 @@
+package com.uci.utils.http;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClusterRateLimiterTest {
+
+    @Test
+    void tokensAreTakenFromTheStoreInBatches() {
+        AtomicInteger calls = new AtomicInteger();
+        ClusterRateLimiter limiter = new ClusterRateLimiter("test-batch", (key, rate, burst, requested) -> {
+            calls.incrementAndGet();
+            return requested;
+        }, 100, 100, 5, Duration.ofSeconds(1), 1, Duration.ofSeconds(5));
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquireBlocking();
+        }
+
+        assertEquals(2, calls.get());
+        assertEquals(0, limiter.getLocalTokens());
+    }
+
+    @Test
+    void callsWaitForTheNextTokenUntilTheDeadline() {
+        AtomicInteger calls = new AtomicInteger();
+        ClusterRateLimiter limiter = new ClusterRateLimiter("test-wait", (key, rate, burst, requested) ->
+                calls.incrementAndGet() == 1 ? -50 : 1, 20, 1, 1, Duration.ofMillis(500), 1, Duration.ofSeconds(5));
+
+        long start = System.nanoTime();
+        limiter.acquireBlocking();
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+
+        ClusterRateLimiter shedding = new ClusterRateLimiter("test-shed", (key, rate, burst, requested) -> -1000,
+                1, 1, 1, Duration.ofMillis(100), 1, Duration.ofSeconds(5));
+        assertThrows(CallNotPermittedException.class, shedding::acquireBlocking);
+    }
+
+    @Test
+    void localRateIsUsedWhileTheStoreIsUnreachable() {
+        AtomicInteger calls = new AtomicInteger();
+        ClusterRateLimiter limiter = new ClusterRateLimiter("test-fallback", (key, rate, burst, requested) -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("redis down");
+        }, 100, 100, 5, Duration.ofMillis(10), 2, Duration.ofSeconds(5));
+
+        limiter.acquireBlocking();
+        limiter.acquireBlocking();
+        assertThrows(CallNotPermittedException.class, limiter::acquireBlocking);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void blockingCallersFailFastOnNonBlockingThreads() {
+        ClusterRateLimiter limiter = new ClusterRateLimiter("test-parallel", (key, rate, burst, requested) -> requested,
+                100, 100, 5, Duration.ofSeconds(1), 1, Duration.ofSeconds(5));
+
+        Mono<Void> acquired = Mono.<Void>fromRunnable(limiter::acquireBlocking).subscribeOn(Schedulers.parallel());
+        assertThrows(IllegalStateException.class, acquired::block);
+        assertEquals(0, limiter.getLocalTokens());
+    }
+}
@@ -0,0 +1,67 @@
+package com.uci.utils.http;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointGuardTest {
+
+    @Test
+    void breakerOpensOnFailuresAndClosesAfterTrialCalls() throws InterruptedException {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test", 50, 4, 4, Duration.ofMillis(100), 2);
+        EndpointGuard guard = new EndpointGuard("test", circuitBreaker, null, null);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> failing = Mono.defer(() -> {
+            calls.incrementAndGet();
+            return Mono.error(new IOException("down"));
+        });
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(Exception.class, () -> guard.protect(failing).block());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        assertThrows(CallNotPermittedException.class, () -> guard.protect(failing).block());
+        assertEquals(4, calls.get());
+
+        Thread.sleep(150);
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertEquals("ok", guard.protect(Mono.just("ok")).block());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void clientErrorsAreNotFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("test-4xx", 50, 2, 2, Duration.ofSeconds(30), 1);
+        EndpointGuard guard = new EndpointGuard("test-4xx", circuitBreaker, null, null);
+        Mono<String> notFound = Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND.value(), "Not Found", null, null, null));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(WebClientResponseException.class, () -> guard.protect(notFound).block());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void bulkheadRejectsCallsOverTheLimit() {
+        EndpointGuard guard = new EndpointGuard("test-bulkhead", null, new Bulkhead("test-bulkhead", 1), null);
+
+        guard.protect(Mono.never()).subscribe();
+        assertThrows(CallNotPermittedException.class, () -> guard.protect(Mono.just("ok")).block());
+    }
+
+    @Test
+    void slowCallsTimeOut() {
+        EndpointGuard guard = new EndpointGuard("test-timeout", null, null, Duration.ofMillis(50));
+
+        assertThrows(Exception.class, () -> guard.protect(Mono.delay(Duration.ofSeconds(5))).block());
+    }
+}
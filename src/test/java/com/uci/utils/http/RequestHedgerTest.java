@@ -0,0 +1,67 @@
+package com.uci.utils.http;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHedgerTest {
+
+    @Test
+    void slowRequestIsWonByHedge() {
+        RequestHedger hedger = new RequestHedger("test-won", 0.95, Duration.ofMillis(1), Duration.ofMillis(50), 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String value = hedger.hedge(() -> attempts.incrementAndGet() == 1
+                ? Mono.just("slow").delayElement(Duration.ofSeconds(5))
+                : Mono.just("hedge")).block(Duration.ofSeconds(2));
+
+        assertEquals("hedge", value);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void fastRequestIsNotHedged() {
+        RequestHedger hedger = new RequestHedger("test-fast", 0.95, Duration.ofMillis(1), Duration.ofMillis(200), 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertEquals("fast", hedger.hedge(() -> {
+            attempts.incrementAndGet();
+            return Mono.just("fast");
+        }).block(Duration.ofSeconds(2)));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void hedgesAreCappedByBudget() {
+        RequestHedger hedger = new RequestHedger("test-budget", 0.95, Duration.ofMillis(1), Duration.ofMillis(10), 0.0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertEquals("slow", hedger.hedge(() -> {
+            attempts.incrementAndGet();
+            return Mono.just("slow").delayElement(Duration.ofMillis(100));
+        }).block(Duration.ofSeconds(2)));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void errorIsReturnedWhenAllAttemptsFail() {
+        RequestHedger hedger = new RequestHedger("test-error", 0.95, Duration.ofMillis(1), Duration.ofMillis(10), 1.0);
+
+        assertThrows(IllegalStateException.class, () -> hedger.hedge(() -> Mono.<String>error(new IllegalStateException("down"))
+                .delaySubscription(Duration.ofMillis(50))).block(Duration.ofSeconds(2)));
+    }
+
+    @Test
+    void delayFollowsLatencyPercentile() {
+        RequestHedger hedger = new RequestHedger("test-delay", 0.5, Duration.ofMillis(1), Duration.ofSeconds(1), 0.0);
+        for (int i = 0; i < 20; i++) {
+            hedger.hedge(() -> Mono.just("ok")).block();
+        }
+
+        assertTrue(hedger.getDelay().compareTo(Duration.ofMillis(100)) < 0);
+    }
+}
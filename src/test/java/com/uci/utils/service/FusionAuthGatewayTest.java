@@ -0,0 +1,120 @@
+package com.uci.utils.service;
+
+import com.inversoft.rest.ClientResponse;
+import io.fusionauth.client.FusionAuthClient;
+import io.fusionauth.domain.Application;
+import io.fusionauth.domain.api.ApplicationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FusionAuthGatewayTest {
+
+    FusionAuthClient fusionAuthClient = Mockito.mock(FusionAuthClient.class);
+    FusionAuthGateway gateway;
+
+    @AfterEach
+    void teardown() {
+        gateway.destroy();
+    }
+
+    @Test
+    void successfulCallEmitsTheApplication() {
+        UUID applicationID = UUID.randomUUID();
+        Application application = new Application();
+        application.id = applicationID;
+        ApplicationResponse applicationResponse = new ApplicationResponse();
+        applicationResponse.application = application;
+        Mockito.when(fusionAuthClient.retrieveApplication(applicationID)).thenReturn(response(applicationResponse));
+        gateway = gateway(1, 10, 1000);
+
+        assertEquals(applicationID, gateway.retrieveApplication(applicationID).block().id);
+    }
+
+    @Test
+    void slowCallTimesOut() {
+        Mockito.when(fusionAuthClient.retrieveApplications()).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return response(new ApplicationResponse());
+        });
+        gateway = gateway(1, 10, 100);
+
+        Throwable error = assertThrows(RuntimeException.class, () -> gateway.retrieveApplications().block());
+        assertTrue(error.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    void callsOverTheQueueCapAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(fusionAuthClient.retrieveApplications()).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return response(new ApplicationResponse());
+        });
+        gateway = gateway(1, 1, 5000);
+
+        /* One call runs on the only thread, the next one takes the only queue slot */
+        Mono<List<Application>> running = gateway.retrieveApplications().cache();
+        running.subscribe();
+        Thread.sleep(100);
+        Mono<List<Application>> queued = gateway.retrieveApplications().cache();
+        queued.subscribe();
+        Thread.sleep(100);
+
+        assertThrows(RejectedExecutionException.class, () -> gateway.retrieveApplications().block());
+        release.countDown();
+        assertTrue(running.block().isEmpty());
+        assertTrue(queued.block().isEmpty());
+    }
+
+    @Test
+    void blockingCallsReturnFailuresAsTheResponseException() {
+        Mockito.when(fusionAuthClient.retrieveApplications()).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return response(new ApplicationResponse());
+        });
+        gateway = gateway(1, 10, 100);
+
+        ClientResponse<ApplicationResponse, Void> response = gateway.executeBlocking("retrieveApplications",
+                FusionAuthClient::retrieveApplications);
+        assertFalse(response.wasSuccessful());
+        assertTrue(response.exception instanceof TimeoutException);
+    }
+
+    @Test
+    void blockingCallsFailFastOnNonBlockingThreads() {
+        gateway = gateway(1, 10, 1000);
+
+        Mono<ClientResponse<ApplicationResponse, Void>> call = Mono.fromCallable(() -> gateway.executeBlocking(
+                "retrieveApplications", FusionAuthClient::retrieveApplications)).subscribeOn(Schedulers.parallel());
+        assertThrows(IllegalStateException.class, call::block);
+    }
+
+    FusionAuthGateway gateway(int threads, int queueSize, long timeoutMillis) {
+        FusionAuthGateway gateway = new FusionAuthGateway();
+        ReflectionTestUtils.setField(gateway, "fusionAuthClient", fusionAuthClient);
+        ReflectionTestUtils.setField(gateway, "threads", threads);
+        ReflectionTestUtils.setField(gateway, "queueSize", queueSize);
+        ReflectionTestUtils.setField(gateway, "timeoutMillis", timeoutMillis);
+        gateway.init();
+        return gateway;
+    }
+
+    static <T> ClientResponse<T, Void> response(T successResponse) {
+        ClientResponse<T, Void> response = new ClientResponse<>();
+        response.status = 200;
+        response.successResponse = successResponse;
+        return response;
+    }
+}